@@ -0,0 +1,88 @@
+package ch.uzh.ifi.seal.soprafs20.GameLogic;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.IndexWord;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.data.Pointer;
+import net.sf.extjwnl.data.PointerType;
+import net.sf.extjwnl.data.Synset;
+import net.sf.extjwnl.data.Word;
+import net.sf.extjwnl.dictionary.Dictionary;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds the {@link RelatedWordsIndex} of all game words from WordNet.
+ * The related words of a word are, sense by sense in WordNet's order of
+ * frequency, its synonyms followed by the words of the related synsets.
+ * Runs at build time: {@code RelatedWordsIndexBuilder <output file>}.
+ */
+public class RelatedWordsIndexBuilder {
+    private static final int MAX_RELATED_WORDS = 50;
+
+    private static final POS[] PARTS_OF_SPEECH = {POS.NOUN, POS.VERB, POS.ADJECTIVE, POS.ADVERB};
+
+    private static final PointerType[] RELATIONS = {
+        PointerType.SIMILAR_TO, PointerType.HYPERNYM, PointerType.HYPONYM,
+        PointerType.PART_MERONYM, PointerType.PART_HOLONYM, PointerType.MEMBER_HOLONYM,
+        PointerType.SUBSTANCE_MERONYM, PointerType.ATTRIBUTE, PointerType.DERIVATION
+    };
+
+    public static void main(String[] args) throws Exception {
+        Path output = Paths.get(args[0]);
+        Dictionary dictionary = Dictionary.getDefaultResourceInstance();
+        Map<String, List<String>> related = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for(String word : new WordReader().getWords()) {
+            String lemma = word.trim().toLowerCase(Locale.ROOT);
+            List<String> words = relatedWords(dictionary, lemma);
+            if(words.isEmpty()) {
+                missing.add(lemma);
+            } else {
+                related.put(lemma, words);
+            }
+        }
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+            RelatedWordsIndex.write(related, out);
+        }
+        System.out.println(String.format("Related words of %d words written to %s, not in WordNet: %s",
+                related.size(), output, missing));
+    }
+
+    static List<String> relatedWords(Dictionary dictionary, String lemma) throws JWNLException {
+        Set<String> related = new LinkedHashSet<>();
+        for(POS pos : PARTS_OF_SPEECH) {
+            IndexWord indexWord = dictionary.lookupIndexWord(pos, lemma);
+            if(indexWord == null) { continue; }
+            for(Synset sense : indexWord.getSenses()) {
+                addWords(sense, related);
+                for(PointerType relation : RELATIONS) {
+                    for(Pointer pointer : sense.getPointers(relation)) {
+                        addWords(pointer.getTargetSynset(), related);
+                    }
+                }
+            }
+        }
+        related.remove(lemma);
+        List<String> ranked = new ArrayList<>(related);
+        return ranked.size() > MAX_RELATED_WORDS ? ranked.subList(0, MAX_RELATED_WORDS) : ranked;
+    }
+
+    private static void addWords(Synset synset, Set<String> related) {
+        for(Word word : synset.getWords()) {
+            related.add(word.getLemma().replace('_', ' ').toLowerCase(Locale.ROOT));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ch.uzh.ifi.seal.soprafs20.GameLogic;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Builds a word pack from a text file with one word per line, skipping
+ * empty lines and duplicates: {@code WordPackBuilder <words.txt> <name.wordpack>}.
+ */
+public class WordPackBuilder {
+
+    public static void main(String[] args) throws Exception {
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        Set<String> words = new LinkedHashSet<>();
+        for(String line : Files.readAllLines(input, StandardCharsets.UTF_8)) {
+            String word = line.trim();
+            if(!word.isEmpty()) { words.add(word); }
+        }
+        if(output.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+        }
+        try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+            WordDictionary.write(words, out);
+        }
+        System.out.println(String.format("%d words written to %s", words.size(), output));
+    }
+}
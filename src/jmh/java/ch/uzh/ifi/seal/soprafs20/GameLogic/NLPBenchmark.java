@@ -0,0 +1,144 @@
+package ch.uzh.ifi.seal.soprafs20.GameLogic;
+
+import opennlp.tools.stemmer.PorterStemmer;
+import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput of the clue validation with 16 threads checking the clues
+ * of a round, as the request and timer threads of many games do.
+ * {@code legacy} is the former implementation, with one instance per
+ * thread because it is not thread-safe.
+ * The clues repeat, so {@code checkClue} and {@code checkClue_preparedWord}
+ * measure cache hits; {@code checkClue_coldCache} appends a suffix that is
+ * unique per thread and invocation to every clue, so each check misses
+ * the result and stem caches and runs the check itself.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class NLPBenchmark {
+
+    private static final String WORD = "Umbrella";
+
+    private static final String[] CLUES = {
+        "rain", "umbrellas", "parasol", "shade", "Weather", "brella",
+        "mbrella", "canopy", "sunshade", "raining", "covering", "007"
+    };
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        final NLP nlp = new NLP();
+        final NLP.Word word = nlp.prepare(WORD);
+    }
+
+    @State(Scope.Thread)
+    public static class PerThread {
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        final LegacyNLP legacy = new LegacyNLP();
+        private final int thread = THREADS.getAndIncrement();
+        private long invocation;
+
+        /**
+         * Letters only, so the clues stay valid; fixed width, so no two suffixes are equal.
+         */
+        String nextSuffix() {
+            char[] suffix = new char[8];
+            long value = invocation++;
+            for (int i = 7; i >= 2; i--) {
+                suffix[i] = (char) ('a' + value % 26);
+                value /= 26;
+            }
+            suffix[0] = (char) ('a' + thread / 26 % 26);
+            suffix[1] = (char) ('a' + thread % 26);
+            return new String(suffix);
+        }
+    }
+
+    @Benchmark
+    public int checkClue(Shared shared) {
+        int valid = 0;
+        for (String clue : CLUES) {
+            if (shared.nlp.checkClue(clue, WORD)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int checkClue_preparedWord(Shared shared) {
+        int valid = 0;
+        for (String clue : CLUES) {
+            if (shared.nlp.checkClue(clue, shared.word)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int checkClue_coldCache(Shared shared, PerThread perThread) {
+        String suffix = perThread.nextSuffix();
+        int valid = 0;
+        for (String clue : CLUES) {
+            if (shared.nlp.checkClue(clue + suffix, shared.word)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int legacy(PerThread perThread) {
+        int valid = 0;
+        for (String clue : CLUES) {
+            if (perThread.legacy.checkClue(clue, WORD)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    static class LegacyNLP {
+        private final PorterStemmer stemmer = new PorterStemmer();
+        private final LevenshteinDistance editDistance = new LevenshteinDistance();
+
+        boolean checkClue(String clue, String word) {
+            String clueToLower = clue.toLowerCase();
+            String wordToLower = word.toLowerCase();
+            String clueStem = stemmer.stem(clueToLower);
+            String wordStem = stemmer.stem(wordToLower);
+            String clueWithoutFirst = clueToLower.substring(1);
+            String wordWithoutFirst = wordToLower.substring(1);
+
+            if(clueToLower.length() > 30) { return false; }
+
+            if(!(clue.matches("^[a-zA-Z]+$") || clue.matches("^[0-9]+$"))) { return false; }
+
+            if(clueToLower.contains(wordToLower) || wordToLower.contains(clueToLower)) { return false; }
+
+            if(clueStem.equals(wordStem)) {return false;}
+
+            if(editDistance.apply(clueWithoutFirst, wordWithoutFirst) <= 1) { return false; }
+
+            return !clueStem.contains(wordStem) && !wordStem.contains(clueStem);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ch.uzh.ifi.seal.soprafs20.GameLogic;
+
+import ch.uzh.ifi.seal.soprafs20.entity.Lobby;
+import ch.uzh.ifi.seal.soprafs20.service.WordPacks;
+import ch.uzh.ifi.seal.soprafs20.service.WordSampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The selection of the 13 words of a new game in {@code GameService.createGame}.
+ * {@code legacy} is the former implementation, which parsed the word pool on every call.
+ * {@code sampler} draws the words of a lobby from its permutation of the pack.
+ * {@code wordReader} includes the construction of the {@code WordReader}, as done per game.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class WordSelectionBenchmark {
+
+    private static final int RAND_WORDS = 13;
+
+    private final WordSampler wordSampler = new WordSampler(new WordPacks("no-wordpacks"));
+    private final Lobby lobby = new Lobby();
+
+    @Benchmark
+    public List<String> sampler() {
+        return wordSampler.draw(lobby, RAND_WORDS);
+    }
+
+    @Benchmark
+    public List<String> dictionary() {
+        return WordDictionary.getInstance().getRandomWords(RAND_WORDS);
+    }
+
+    @Benchmark
+    public List<String> wordReader() {
+        return new WordReader().getRandomWords(RAND_WORDS);
+    }
+
+    @Benchmark
+    public List<String> legacy() {
+        List<String> words = new ArrayList<>();
+        String[] wordsInList = new TextFile().getWords().split("\n");
+        for(String string : wordsInList) {
+            if(!string.isEmpty() && (string.length() <= 12)) {
+                words.add(string);
+            }
+        }
+        List<String> randWords = new ArrayList<>();
+        int randIndex = ThreadLocalRandom.current().nextInt(0, words.size());
+        for(int i = 0; i < RAND_WORDS; i++) {
+            randWords.add(words.get(randIndex));
+            randIndex = (randIndex + 5) % words.size();
+        }
+        return randWords;
+    }
+}
@@ -0,0 +1,68 @@
+package ch.uzh.ifi.seal.soprafs20.rest.mapper;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.GameState;
+import ch.uzh.ifi.seal.soprafs20.entity.Clue;
+import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import ch.uzh.ifi.seal.soprafs20.entity.Player;
+import ch.uzh.ifi.seal.soprafs20.rest.dto.GameGetDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The mapping of a game with 7 players for the game view, done for every
+ * poll and every pushed change of a game.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DTOMapperBenchmark {
+
+    private static final int PLAYERS = 7;
+
+    private final Game game = new Game();
+
+    @Setup
+    public void setUp() {
+        game.setLobbyId(1L);
+        game.setLobbyName("lobby");
+        game.setGameState(GameState.VOTE_ON_CLUES_STATE);
+        game.setRounds(13);
+        game.setRoundsPlayed(4);
+        game.setCurrentWord("Umbrella");
+        game.setDeadline(System.currentTimeMillis());
+        for (long id = 1; id <= PLAYERS; id++) {
+            Player player = new Player();
+            player.setId(id);
+            player.setUsername("player" + id);
+            player.setScore(100);
+            game.addPlayer(player);
+            if (id == 1) {
+                game.setCurrentGuesser(player);
+                continue;
+            }
+            Clue clue = new Clue();
+            clue.setPlayerId(id);
+            clue.setActualClue("clue" + id);
+            player.addClue(clue);
+            game.addClue(clue);
+        }
+    }
+
+    @Benchmark
+    public GameGetDTO convertEntityToGameGetDTO() {
+        return DTOMapper.INSTANCE.convertEntityToGameGetDTO(game);
+    }
+}
@@ -0,0 +1,123 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.GameState;
+import ch.uzh.ifi.seal.soprafs20.entity.Clue;
+import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import ch.uzh.ifi.seal.soprafs20.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The clue and vote handling of a round in {@code GameService}.
+ * A round has one clue per player except the guesser, and every voter
+ * marks half of the clues as invalid. 7 players is the maximum of a lobby,
+ * the larger sizes show how the handling scales.
+ * {@code checkVotes} and {@code addClue} change the game, so they copy
+ * the prepared clues into a new game on every call; {@code checkVotes}
+ * also counts the votes, so it covers the whole voting of a round.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GameServiceBenchmark {
+
+    @Param({"7", "50"})
+    private int players;
+
+    private final LiveGameStore liveGameStore = new LiveGameStore();
+
+    // only the store of the running games is used by the benchmarked methods
+    private final GameService gameService = new GameService(null, null, null, null, null,
+            null, liveGameStore, null, null, null, null, null, null, null, null);
+
+    private Game scoredGame;
+    private List<Clue> clues;
+    private List<String> votes;
+    private int threshold;
+
+    @Setup
+    public void setUp() {
+        clues = new ArrayList<>();
+        votes = new ArrayList<>();
+        scoredGame = new Game();
+        scoredGame.setLobbyId(1L);
+        scoredGame.setGameState(GameState.ENTER_GUESS_STATE);
+        scoredGame.setGuessCorrect(true);
+        for (long id = 1; id <= players; id++) {
+            Player player = new Player();
+            player.setId(id);
+            scoredGame.addPlayer(player);
+            if (id == 1) {
+                scoredGame.setCurrentGuesser(player);
+                continue;
+            }
+            Clue clue = clue(id, "clue" + id);
+            clues.add(clue);
+            player.addClue(clue);
+            scoredGame.addClue(clue);
+        }
+        for (long voter = 2; voter <= players; voter++) {
+            for (int i = 0; i < clues.size(); i += 2) {
+                votes.add(clues.get(i).getActualClue());
+            }
+        }
+        threshold = (int) Math.ceil((players - 1) / 2.0);
+        liveGameStore.put(scoredGame);
+    }
+
+    @Benchmark
+    public Game checkVotes() {
+        Game game = new Game();
+        game.setPlayers(scoredGame.getPlayers());
+        game.setEnteredClues(new ArrayList<>(clues));
+        game.openVotes();
+        for (String vote : votes) {
+            game.addVote(vote);
+        }
+        gameService.checkVotes(game, threshold);
+        return game;
+    }
+
+    @Benchmark
+    public Game updateScores() {
+        gameService.updateScores(scoredGame);
+        return scoredGame;
+    }
+
+    @Benchmark
+    public Game addClue() {
+        Game game = new Game();
+        for (Clue clue : clues) {
+            gameService.addClue(clue, game);
+        }
+        // every clue sent a second time is moved to the invalid clues
+        for (int i = 0; i < clues.size(); i += 2) {
+            gameService.addClue(clue(0L, clues.get(i).getActualClue()), game);
+        }
+        return game;
+    }
+
+    private static Clue clue(long playerId, String text) {
+        Clue clue = new Clue();
+        clue.setPlayerId(playerId);
+        clue.setActualClue(text);
+        clue.setTimeNeeded(20L);
+        return clue;
+    }
+}
@@ -0,0 +1,108 @@
+package ch.uzh.ifi.seal.soprafs20.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends the requests of the simulated players and records them in the {@link EndpointStats}
+ * under the endpoint they were sent to, e.g. {@code PUT /lobbies/{id}/game/clue}.
+ */
+class ApiClient {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final EndpointStats stats;
+
+    ApiClient(String baseUrl, EndpointStats stats) {
+        this.httpClient = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+    }
+
+    /**
+     * Sends a request.
+     *
+     * @param endpoint the endpoint the request is recorded under.
+     * @param method   the http method.
+     * @param path     the path and query of the request.
+     * @param body     the body, sent as JSON, or null.
+     * @return the response, null if the request failed.
+     */
+    HttpResponse<String> send(String endpoint, String method, String path, Map<String, ?> body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+        if(body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(toJson(body)));
+        }
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            stats.record(endpoint, System.nanoTime() - start, response.statusCode() >= 400);
+            return response;
+        } catch(IOException e) {
+            stats.record(endpoint, System.nanoTime() - start, true);
+            return null;
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Sends a GET request to a path outside of the measured endpoints, e.g. to the actuator.
+     *
+     * @return the response body as JSON, null if the request failed.
+     */
+    JsonNode getUnrecorded(String path) {
+        try {
+            HttpResponse<String> response = httpClient.send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 ? JSON.readTree(response.body()) : null;
+        } catch(IOException e) {
+            return null;
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    static JsonNode readJson(HttpResponse<String> response) {
+        try {
+            return JSON.readTree(response.body());
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the id at the end of the Location header of a created resource.
+     */
+    static long createdId(HttpResponse<String> response) {
+        String location = response.headers().firstValue("Location")
+                .orElseThrow(() -> new IllegalStateException("No Location header"));
+        return Long.parseLong(location.substring(location.lastIndexOf('/') + 1));
+    }
+
+    private static String toJson(Map<String, ?> body) {
+        try {
+            return JSON.writeValueAsString(body);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
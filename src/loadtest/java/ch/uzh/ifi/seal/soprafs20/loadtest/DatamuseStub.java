@@ -0,0 +1,66 @@
+package ch.uzh.ifi.seal.soprafs20.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers the "means like" queries of the bots in place of the Datamuse API,
+ * so a load test neither depends on nor floods the real API.
+ * Every query gets the same related words, in the format of the API.
+ * The server under test uses it with {@code --datamuse.url=http://localhost:<port>}.
+ */
+class DatamuseStub {
+
+    private static final String[] WORDS = {
+        "river", "garden", "music", "winter", "planet", "forest", "candle", "bridge",
+        "silver", "thunder", "harbor", "pencil", "mirror", "castle", "rocket", "meadow"
+    };
+
+    private static final byte[] RESPONSE = response();
+
+    private final HttpServer server;
+    private final AtomicLong requests = new AtomicLong();
+
+    DatamuseStub(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/words", this::handle);
+        server.setExecutor(Executors.newFixedThreadPool(2));
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    long getRequests() {
+        return requests.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, RESPONSE.length);
+        try(OutputStream body = exchange.getResponseBody()) {
+            body.write(RESPONSE);
+        }
+    }
+
+    private static byte[] response() {
+        StringBuilder json = new StringBuilder("[");
+        for(int i = 0; i < WORDS.length; i++) {
+            if(i > 0) { json.append(','); }
+            json.append(String.format("{\"word\":\"%s\",\"score\":%d,\"tags\":[\"n\"]}", WORDS[i], 1000 - i));
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,75 @@
+package ch.uzh.ifi.seal.soprafs20.loadtest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latency and errors of the requests per endpoint, e.g. {@code GET /lobbies/{id}/game}.
+ * A request is an error if it fails or is answered with a status of 400 or above.
+ */
+class EndpointStats {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, boolean error) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, Endpoint::new);
+        stats.latency.record(nanos, TimeUnit.NANOSECONDS);
+        if(error) { stats.errors.increment(); }
+    }
+
+    long getRequests() {
+        long requests = 0;
+        for(Endpoint endpoint : endpoints.values()) { requests += endpoint.latency.count(); }
+        return requests;
+    }
+
+    long getErrors() {
+        long errors = 0;
+        for(Endpoint endpoint : endpoints.values()) { errors += (long) endpoint.errors.count(); }
+        return errors;
+    }
+
+    void print(PrintStream out, double seconds) {
+        out.println(String.format("%-40s %9s %9s %9s %9s %9s %7s",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "errors"));
+        for(Endpoint endpoint : new TreeMap<>(endpoints).values()) {
+            long count = endpoint.latency.count();
+            ValueAtPercentile[] percentiles = endpoint.latency.takeSnapshot().percentileValues();
+            out.println(String.format("%-40s %9d %9.1f %9.1f %9.1f %9.1f %6.2f%%",
+                    endpoint.name, count, count / seconds,
+                    percentiles[0].value(TimeUnit.MILLISECONDS), percentiles[1].value(TimeUnit.MILLISECONDS),
+                    endpoint.latency.max(TimeUnit.MILLISECONDS),
+                    count == 0 ? 0 : 100.0 * endpoint.errors.count() / count));
+        }
+    }
+
+    private final class Endpoint {
+        private final String name;
+        private final Timer latency;
+        private final Counter errors;
+
+        private Endpoint(String name) {
+            this.name = name;
+            this.latency = Timer.builder("loadtest.requests")
+                    .tag("endpoint", name)
+                    .publishPercentiles(0.5, 0.99)
+                    // the percentiles and the maximum cover the whole run
+                    .distributionStatisticExpiry(Duration.ofDays(1))
+                    .distributionStatisticBufferLength(1)
+                    .register(registry);
+            this.errors = Counter.builder("loadtest.errors")
+                    .tag("endpoint", name)
+                    .register(registry);
+        }
+    }
+}
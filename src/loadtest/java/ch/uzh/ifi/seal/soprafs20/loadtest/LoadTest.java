@@ -0,0 +1,109 @@
+package ch.uzh.ifi.seal.soprafs20.loadtest;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays many lobbies in parallel against a running server and reports the throughput,
+ * the p50/p99 latency and the error rate per endpoint, and the threads and heap of the server.
+ * The bots of the server get their related words from a {@link DatamuseStub} started here.
+ * <pre>
+ * ./gradlew bootRun --args='--datamuse.url=http://localhost:8089'
+ * ./gradlew loadTest -Plobbies=1000
+ * </pre>
+ * The options are passed as {@code key=value}: {@code baseUrl}, {@code lobbies}, {@code players}
+ * per lobby, {@code bots} per lobby, {@code rounds} per game, {@code threads} of the load generator,
+ * {@code pollMillis} between two polls of a player, {@code rampUpSeconds} to start all lobbies,
+ * {@code stubPort} of the Datamuse stub and {@code timeoutSeconds} of the whole test.
+ */
+public class LoadTest {
+
+    private static final long REPORT_MILLIS = 5000;
+    private static final int MAX_DEFAULT_THREADS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for(String arg : args) {
+            int separator = arg.indexOf('=');
+            if(separator > 0) { options.put(arg.substring(0, separator), arg.substring(separator + 1)); }
+        }
+        String baseUrl = options.getOrDefault("baseUrl", "http://localhost:8080");
+        int lobbies = intOption(options, "lobbies", 100);
+        int players = intOption(options, "players", 3);
+        int bots = intOption(options, "bots", 1);
+        int rounds = intOption(options, "rounds", 2);
+        // a thread per lobby, so the players poll as often as configured and not as often as the generator manages
+        int threads = intOption(options, "threads", Math.min(lobbies, MAX_DEFAULT_THREADS));
+        int pollMillis = intOption(options, "pollMillis", 1000);
+        int rampUpSeconds = intOption(options, "rampUpSeconds", 30);
+        int stubPort = intOption(options, "stubPort", 8089);
+        int timeoutSeconds = intOption(options, "timeoutSeconds", 900);
+        if(players < 2 || players + bots < 3 || players + bots > 7) {
+            throw new IllegalArgumentException("A lobby needs 3 to 7 players and bots, at least 2 of them players");
+        }
+
+        PrintStream out = System.out;
+        DatamuseStub stub = new DatamuseStub(stubPort);
+        stub.start();
+        EndpointStats stats = new EndpointStats();
+        ApiClient client = new ApiClient(baseUrl, stats);
+        ServerMonitor monitor = new ServerMonitor(client);
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(threads);
+
+        // usernames have at most 10 characters, the run id keeps them unique across runs
+        String runId = Integer.toString(ThreadLocalRandom.current().nextInt(36 * 36 * 36), 36);
+        List<LobbyDriver> drivers = new ArrayList<>();
+        long rampUpMillis = TimeUnit.SECONDS.toMillis(rampUpSeconds);
+        for(int i = 0; i < lobbies; i++) {
+            LobbyDriver driver = new LobbyDriver(client, String.format("l%s%s_", runId, Integer.toString(i, 36)),
+                    players, bots, rounds);
+            drivers.add(driver);
+            executor.scheduleWithFixedDelay(driver::step, rampUpMillis * i / lobbies, pollMillis, TimeUnit.MILLISECONDS);
+        }
+        out.println(String.format("Playing %d lobbies of %d players and %d bots against %s, Datamuse stub on port %d",
+                lobbies, players, bots, baseUrl, stubPort));
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        int finished = 0;
+        while(finished < lobbies && System.nanoTime() < deadline) {
+            Thread.sleep(REPORT_MILLIS);
+            monitor.sample();
+            finished = 0;
+            int running = 0;
+            for(LobbyDriver driver : drivers) {
+                if(driver.isDone()) { finished++; } else if(driver.isStarted()) { running++; }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            out.println(String.format("%5.0fs: %d running, %d finished, %.0f req/s, %d errors%s",
+                    seconds, running, finished, stats.getRequests() / seconds, stats.getErrors(), monitor.current()));
+        }
+        executor.shutdownNow();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+        stub.stop();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long failed = drivers.stream().filter(LobbyDriver::isFailed).count();
+        out.println();
+        out.println(String.format("%d of %d lobbies played their game, %d failed, %d still running after %.0fs",
+                finished - failed, lobbies, failed, lobbies - finished, seconds));
+        out.println(String.format("%d requests, %.1f req/s, %d errors, %d Datamuse stub requests",
+                stats.getRequests(), stats.getRequests() / seconds, stats.getErrors(), stub.getRequests()));
+        out.println();
+        stats.print(out, seconds);
+        out.println();
+        monitor.print(out);
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,177 @@
+package ch.uzh.ifi.seal.soprafs20.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Plays one lobby like its players would: the players sign up and log in,
+ * the host creates the lobby, the others join, the host adds the bots and
+ * starts the game. Then every step each player polls the game and acts once
+ * per state: the guesser picks the word and guesses, the others send their
+ * clues and votes. The host also polls the timer. Stops once the game ends.
+ */
+class LobbyDriver {
+
+    private static final String[] CLUES = {
+        "river", "garden", "music", "winter", "planet", "forest", "candle", "bridge",
+        "silver", "thunder", "harbor", "pencil", "mirror", "castle", "rocket", "meadow"
+    };
+
+    private final ApiClient client;
+    private final String name;
+    private final int playerCount;
+    private final int bots;
+    private final int rounds;
+    private final List<SimPlayer> players = new ArrayList<>();
+    private final Set<String> actions = new HashSet<>();
+
+    private long lobbyId;
+    private boolean started;
+    private volatile boolean done;
+    private volatile boolean failed;
+
+    LobbyDriver(ApiClient client, String name, int playerCount, int bots, int rounds) {
+        this.client = client;
+        this.name = name;
+        this.playerCount = playerCount;
+        this.bots = bots;
+        this.rounds = rounds;
+    }
+
+    boolean isDone() { return done; }
+
+    boolean isFailed() { return failed; }
+
+    boolean isStarted() { return started; }
+
+    /**
+     * Runs the next step of the lobby, called periodically by one thread at a time.
+     */
+    synchronized void step() {
+        if(done) { return; }
+        try {
+            if(!started) {
+                setUp();
+                started = true;
+                return;
+            }
+            SimPlayer host = players.get(0);
+            client.send("GET /lobbies/{id}/game/timer", "GET",
+                    String.format("/lobbies/%d/game/timer?token=%s", lobbyId, host.token), null);
+            for(SimPlayer player : players) {
+                play(player);
+                if(done) { return; }
+            }
+        } catch(RuntimeException e) {
+            fail();
+        }
+    }
+
+    private void setUp() {
+        for(int i = 0; i < playerCount; i++) {
+            String username = name + i;
+            require(client.send("POST /users", "POST", "/users",
+                    Map.of("username", username, "password", "password")));
+            JsonNode login = ApiClient.readJson(require(client.send("PUT /login", "PUT", "/login",
+                    Map.of("username", username, "password", "password"))));
+            players.add(new SimPlayer(login.get("id").asLong(), login.get("token").asText()));
+        }
+        SimPlayer host = players.get(0);
+        lobbyId = ApiClient.createdId(require(client.send("POST /lobbies", "POST", "/lobbies",
+                Map.of("lobbyName", name, "maxPlayersAndBots", 7, "rounds", rounds,
+                        "hostId", host.id, "hostToken", host.token))));
+        for(SimPlayer player : players.subList(1, players.size())) {
+            require(client.send("PUT /lobbies/{id}/joins", "PUT", String.format("/lobbies/%d/joins", lobbyId),
+                    Map.of("playerId", player.id, "playerToken", player.token)));
+        }
+        if(bots > 0) {
+            require(client.send("PUT /lobbies/{id}", "PUT", String.format("/lobbies/%d", lobbyId),
+                    Map.of("hostToken", host.token, "numberOfBots", bots)));
+        }
+        require(client.send("POST /lobbies/{id}", "POST", String.format("/lobbies/%d", lobbyId),
+                Map.of("hostId", host.id, "hostToken", host.token)));
+    }
+
+    private void play(SimPlayer player) {
+        HttpResponse<String> response = client.send("GET /lobbies/{id}/game", "GET",
+                String.format("/lobbies/%d/game?token=%s", lobbyId, player.token), null);
+        if(response == null || response.statusCode() != 200) { return; }
+        JsonNode game = ApiClient.readJson(response);
+        String state = game.get("gameState").asText();
+        if("END_GAME_STATE".equals(state)) {
+            done = true;
+            return;
+        }
+        // every player acts at most once per state of a round
+        if(!actions.add(player.id + ":" + game.get("roundsPlayed").asInt() + ":" + state)) { return; }
+        boolean guesser = game.path("currentGuesser").path("id").asLong() == player.id;
+        String path = String.format("/lobbies/%d/game", lobbyId);
+        switch(state) {
+            case "PICK_WORD_STATE":
+                if(guesser) {
+                    client.send("GET /lobbies/{id}/game/word", "GET", path + "/word?token=" + player.token, null);
+                }
+                break;
+            case "ENTER_CLUES_STATE":
+                if(!guesser) {
+                    client.send("PUT /lobbies/{id}/game/clue", "PUT", path + "/clue",
+                            Map.of("playerId", player.id, "playerToken", player.token,
+                                    "message", randomClue(), "message2", randomClue()));
+                }
+                break;
+            case "VOTE_ON_CLUES_STATE":
+                if(!guesser) {
+                    List<String> invalidClues = new ArrayList<>();
+                    JsonNode clues = game.path("enteredClues");
+                    if(clues.size() > 0 && ThreadLocalRandom.current().nextBoolean()) {
+                        invalidClues.add(clues.get(0).path("actualClue").asText());
+                    }
+                    client.send("PUT /lobbies/{id}/game/vote", "PUT", path + "/vote",
+                            Map.of("playerId", player.id, "playerToken", player.token,
+                                    "invalidClues", invalidClues));
+                }
+                break;
+            case "ENTER_GUESS_STATE":
+                if(guesser) {
+                    client.send("PUT /lobbies/{id}/game/guess", "PUT", path + "/guess",
+                            Map.of("playerId", player.id, "playerToken", player.token, "message", randomClue()));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void fail() {
+        failed = true;
+        done = true;
+    }
+
+    private static HttpResponse<String> require(HttpResponse<String> response) {
+        if(response == null || response.statusCode() >= 400) {
+            throw new IllegalStateException("Setting up the lobby failed");
+        }
+        return response;
+    }
+
+    private static String randomClue() {
+        return CLUES[ThreadLocalRandom.current().nextInt(CLUES.length)];
+    }
+
+    private static final class SimPlayer {
+        private final long id;
+        private final String token;
+
+        private SimPlayer(long id, String token) {
+            this.id = id;
+            this.token = token;
+        }
+    }
+}
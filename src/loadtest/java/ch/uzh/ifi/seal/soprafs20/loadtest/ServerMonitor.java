@@ -0,0 +1,61 @@
+package ch.uzh.ifi.seal.soprafs20.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Samples the thread count, heap usage and game load of the server from its actuator metrics.
+ */
+class ServerMonitor {
+
+    private static final Map<String, String> METRICS = new LinkedHashMap<>();
+
+    static {
+        METRICS.put("threads", "/actuator/metrics/jvm.threads.live");
+        METRICS.put("heap MB", "/actuator/metrics/jvm.memory.used?tag=area:heap");
+        METRICS.put("cpu %", "/actuator/metrics/process.cpu.usage");
+        METRICS.put("live games", "/actuator/metrics/game.live");
+        METRICS.put("pending deadlines", "/actuator/metrics/game.scheduler.pending");
+    }
+
+    private final ApiClient client;
+    private final Map<String, Double> last = new LinkedHashMap<>();
+    private final Map<String, Double> max = new LinkedHashMap<>();
+
+    ServerMonitor(ApiClient client) {
+        this.client = client;
+    }
+
+    synchronized void sample() {
+        for(Map.Entry<String, String> metric : METRICS.entrySet()) {
+            JsonNode response = client.getUnrecorded(metric.getValue());
+            if(response == null) { continue; }
+            double value = response.path("measurements").path(0).path("value").asDouble();
+            if(metric.getKey().equals("heap MB")) { value /= 1024 * 1024; }
+            if(metric.getKey().equals("cpu %")) { value *= 100; }
+            last.put(metric.getKey(), value);
+            max.merge(metric.getKey(), value, Math::max);
+        }
+    }
+
+    synchronized String current() {
+        StringBuilder line = new StringBuilder();
+        for(Map.Entry<String, Double> value : last.entrySet()) {
+            line.append(String.format(", %s %.0f", value.getKey(), value.getValue()));
+        }
+        return line.toString();
+    }
+
+    synchronized void print(PrintStream out) {
+        if(max.isEmpty()) {
+            out.println("No server metrics, is /actuator/metrics exposed?");
+            return;
+        }
+        for(Map.Entry<String, Double> value : max.entrySet()) {
+            out.println(String.format("%-20s max %10.1f   last %10.1f", value.getKey(), value.getValue(), last.get(value.getKey())));
+        }
+    }
+}
@@ -1,37 +1,161 @@
 package ch.uzh.ifi.seal.soprafs20.GameLogic;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import opennlp.tools.stemmer.PorterStemmer;
 import org.apache.commons.text.similarity.LevenshteinDistance;
 
-public class NLP {
-    private final PorterStemmer stemmer = new PorterStemmer();
+import java.util.Locale;
+
+/**
+ * Checks clues against the current word. Instances are thread-safe:
+ * the {@link PorterStemmer} keeps its state between calls, so every
+ * thread stems with its own instance.
+ * The results and the stems are cached, keyed by the lowercase forms,
+ * since the same clues are checked for the same words in many games.
+ * Their hit rates are published as the caches {@code nlp.results} and {@code nlp.stems}.
+ */
+public class NLP implements MeterBinder {
+    private static final int MAX_CLUE_LENGTH = 30;
+    private static final long DEFAULT_MAX_RESULTS = 50_000;
+    private static final long DEFAULT_MAX_STEMS = 20_000;
+
+    private final ThreadLocal<PorterStemmer> stemmer = ThreadLocal.withInitial(PorterStemmer::new);
     private final LevenshteinDistance editDistance = new LevenshteinDistance();
+    private final Cache<String, Boolean> results;
+    private final Cache<String, String> stems;
+
+    public NLP() {
+        this(DEFAULT_MAX_RESULTS, DEFAULT_MAX_STEMS);
+    }
+
+    public NLP(long maxResults, long maxStems) {
+        this.results = Caffeine.newBuilder().maximumSize(maxResults).recordStats().build();
+        this.stems = Caffeine.newBuilder().maximumSize(maxStems).recordStats().build();
+    }
+
+    /**
+     * The forms of a word the clues are compared with. Computed once per
+     * round with {@link #prepare(String)} instead of once per clue.
+     */
+    public static final class Word {
+        private final String lower;
+        private final String lowerWithoutFirst;
+        private final String stem;
+
+        private Word(String lower, String stem) {
+            this.lower = lower;
+            this.lowerWithoutFirst = lower.substring(1);
+            this.stem = stem;
+        }
+    }
+
+    public Word prepare(String word) {
+        String wordToLower = word.toLowerCase(Locale.ROOT);
+        return new Word(wordToLower, stemWord(wordToLower));
+    }
 
     public boolean checkClue(String clue, String word) {
-        String clueToLower = clue.toLowerCase();
-        String wordToLower = word.toLowerCase();
-        String clueStem = stemWord(clueToLower);
-        String wordStem = stemWord(wordToLower);
-        String clueWithoutFirst = clueToLower.substring(1);
-        String wordWithoutFirst = wordToLower.substring(1);
+        return checkClue(clue, prepare(word));
+    }
 
-        if(clueToLower.length() > 30) { return false; }
+    public boolean checkClue(String clue, Word word) {
+        if(clue.isEmpty() || clue.length() > MAX_CLUE_LENGTH) { return false; }
 
-        if(!(clue.matches("^[a-zA-Z]+$") || clue.matches("^[0-9]+$"))) { return false; }
+        if(!(isLetters(clue) || isDigits(clue))) { return false; }
 
-        if(clueToLower.contains(wordToLower) || wordToLower.contains(clueToLower)) { return false; }
+        String clueToLower = clue.toLowerCase(Locale.ROOT);
+        return results.get(clueToLower + '\n' + word.lower, key -> isValid(clueToLower, word));
+    }
 
-        if(clueStem.equals(wordStem)) {return false;}
+    /**
+     * Checks the clues a word will probably be given, so that they are
+     * cached before the word is played.
+     */
+    public void warmUp(String word, Iterable<String> clues) {
+        Word prepared = prepare(word);
+        for(String clue : clues) {
+            checkClue(clue, prepared);
+        }
+    }
 
-        if(getDistance(clueWithoutFirst, wordWithoutFirst) <= 1) { return false; }
+    public CacheStats getResultStats() { return results.stats(); }
 
-        return !clueStem.contains(wordStem) && !wordStem.contains(clueStem);
+    public CacheStats getStemStats() { return stems.stats(); }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, results, "nlp.results");
+        CaffeineCacheMetrics.monitor(registry, stems, "nlp.stems");
+    }
+
+    private boolean isValid(String clueToLower, Word word) {
+        if(clueToLower.contains(word.lower) || word.lower.contains(clueToLower)) { return false; }
+
+        if(isWithinOneEdit(clueToLower, 1, word.lowerWithoutFirst)) { return false; }
+
+        String clueStem = stemWord(clueToLower);
+        if(clueStem.equals(word.stem)) { return false; }
+
+        return !clueStem.contains(word.stem) && !word.stem.contains(clueStem);
     }
 
     public String stemWord(String word) {
-        return stemmer.stem(word);
+        return stems.get(word, w -> stemmer.get().stem(w));
     }
 
     public int getDistance(String clue, String word) { return editDistance.apply(clue, word); }
+
+    private static boolean isLetters(String s) {
+        for(int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if(!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) { return false; }
+        }
+        return true;
+    }
+
+    private static boolean isDigits(String s) {
+        for(int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if(c < '0' || c > '9') { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the edit distance between {@code a} from index {@code from}
+     * and {@code b} is at most one. Stops at the second difference.
+     */
+    static boolean isWithinOneEdit(String a, int from, String b) {
+        int aLength = a.length() - from;
+        int bLength = b.length();
+        if(Math.abs(aLength - bLength) > 1) { return false; }
+
+        int i = from;
+        int j = 0;
+        boolean edited = false;
+        while(i < a.length() && j < bLength) {
+            if(a.charAt(i) == b.charAt(j)) {
+                i++;
+                j++;
+                continue;
+            }
+            if(edited) { return false; }
+            edited = true;
+            if(aLength > bLength) {
+                i++;
+            } else if(aLength < bLength) {
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,193 @@
+package ch.uzh.ifi.seal.soprafs20.GameLogic;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Related words of the game words, read from a compact binary file built
+ * with {@link #write(Map, OutputStream)}. All words are stored once and
+ * referenced by id, the ids are in the order of the UTF-8 bytes of the
+ * words so a word is found by binary search without decoding others:
+ *
+ * <pre>
+ * int    magic
+ * int    word count W
+ * int    neighbor count N
+ * int    string pool size S
+ * int[W + 1] offsets of the words in the string pool
+ * byte[S]    string pool, UTF-8
+ * int[W + 1] offsets of the neighbors of each word
+ * int[N]     neighbor ids, the most related first
+ * </pre>
+ */
+public final class RelatedWordsIndex {
+    private static final int MAGIC = 0x52574931;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int wordCount;
+    private final int stringOffsetsAt;
+    private final int poolAt;
+    private final int neighborOffsetsAt;
+    private final int neighborsAt;
+
+    private RelatedWordsIndex(ByteBuffer buffer) {
+        if(buffer.getInt(0) != MAGIC) { throw new IllegalArgumentException("Not a related words index"); }
+        this.buffer = buffer;
+        this.wordCount = buffer.getInt(Integer.BYTES);
+        int poolSize = buffer.getInt(3 * Integer.BYTES);
+        this.stringOffsetsAt = HEADER_BYTES;
+        this.poolAt = stringOffsetsAt + (wordCount + 1) * Integer.BYTES;
+        this.neighborOffsetsAt = poolAt + poolSize;
+        this.neighborsAt = neighborOffsetsAt + (wordCount + 1) * Integer.BYTES;
+    }
+
+    public static RelatedWordsIndex read(InputStream in) throws IOException {
+        return read(ByteBuffer.wrap(in.readAllBytes()));
+    }
+
+    public static RelatedWordsIndex read(ByteBuffer buffer) {
+        return new RelatedWordsIndex(buffer.asReadOnlyBuffer());
+    }
+
+    public static RelatedWordsIndex empty() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 2 * Integer.BYTES);
+        buffer.putInt(MAGIC).putInt(0).putInt(0).putInt(0);
+        return new RelatedWordsIndex(buffer);
+    }
+
+    /**
+     * Gets the related words of a word, ignoring case.
+     *
+     * @return the related words, the most related first, none if the word is unknown.
+     */
+    public List<String> get(String word) {
+        int id = find(word.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+        if(id < 0) { return Collections.emptyList(); }
+        int from = intAt(neighborOffsetsAt, id);
+        int to = intAt(neighborOffsetsAt, id + 1);
+        List<String> related = new ArrayList<>(to - from);
+        for(int i = from; i < to; i++) {
+            related.add(wordOf(intAt(neighborsAt, i)));
+        }
+        return related;
+    }
+
+    /**
+     * The amount of words with related words.
+     */
+    public int size() {
+        int size = 0;
+        for(int id = 0; id < wordCount; id++) {
+            if(intAt(neighborOffsetsAt, id) != intAt(neighborOffsetsAt, id + 1)) { size++; }
+        }
+        return size;
+    }
+
+    private int find(byte[] key) {
+        int low = 0;
+        int high = wordCount - 1;
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareTo(mid, key);
+            if(cmp < 0) {
+                low = mid + 1;
+            } else if(cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compareTo(int id, byte[] key) {
+        int from = poolAt + intAt(stringOffsetsAt, id);
+        int length = poolAt + intAt(stringOffsetsAt, id + 1) - from;
+        int n = Math.min(length, key.length);
+        for(int i = 0; i < n; i++) {
+            int cmp = Byte.toUnsignedInt(buffer.get(from + i)) - Byte.toUnsignedInt(key[i]);
+            if(cmp != 0) { return cmp; }
+        }
+        return length - key.length;
+    }
+
+    private String wordOf(int id) {
+        int from = intAt(stringOffsetsAt, id);
+        byte[] bytes = new byte[intAt(stringOffsetsAt, id + 1) - from];
+        buffer.get(poolAt + from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int intAt(int arrayAt, int index) {
+        return buffer.getInt(arrayAt + index * Integer.BYTES);
+    }
+
+    /**
+     * Writes an index of related words. The words are lowercased.
+     *
+     * @param related the related words of each word, the most related first.
+     */
+    public static void write(Map<String, List<String>> related, OutputStream out) throws IOException {
+        TreeSet<byte[]> vocabulary = new TreeSet<>(Arrays::compareUnsigned);
+        Map<String, List<String>> lowercased = new HashMap<>();
+        related.forEach((word, words) -> {
+            List<String> lower = new ArrayList<>(words.size());
+            words.forEach(w -> lower.add(w.toLowerCase(Locale.ROOT)));
+            lowercased.put(word.toLowerCase(Locale.ROOT), lower);
+        });
+        lowercased.forEach((word, words) -> {
+            vocabulary.add(word.getBytes(StandardCharsets.UTF_8));
+            words.forEach(w -> vocabulary.add(w.getBytes(StandardCharsets.UTF_8)));
+        });
+
+        List<String> words = new ArrayList<>(vocabulary.size());
+        Map<String, Integer> ids = new HashMap<>();
+        int poolSize = 0;
+        for(byte[] bytes : vocabulary) {
+            String word = new String(bytes, StandardCharsets.UTF_8);
+            ids.put(word, words.size());
+            words.add(word);
+            poolSize += bytes.length;
+        }
+        int neighborCount = 0;
+        for(List<String> neighbors : lowercased.values()) { neighborCount += neighbors.size(); }
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(words.size());
+        data.writeInt(neighborCount);
+        data.writeInt(poolSize);
+        int offset = 0;
+        data.writeInt(offset);
+        for(byte[] bytes : vocabulary) {
+            offset += bytes.length;
+            data.writeInt(offset);
+        }
+        for(byte[] bytes : vocabulary) { data.write(bytes); }
+        offset = 0;
+        data.writeInt(offset);
+        for(String word : words) {
+            offset += lowercased.getOrDefault(word, Collections.emptyList()).size();
+            data.writeInt(offset);
+        }
+        for(String word : words) {
+            for(String neighbor : lowercased.getOrDefault(word, Collections.emptyList())) {
+                data.writeInt(ids.get(neighbor));
+            }
+        }
+        data.flush();
+    }
+}
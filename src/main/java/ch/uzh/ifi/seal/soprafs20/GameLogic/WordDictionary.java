@@ -0,0 +1,160 @@
+package ch.uzh.ifi.seal.soprafs20.GameLogic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A pack of words in a compact indexed format, written with
+ * {@link #write(Iterable, OutputStream)}:
+ *
+ * <pre>
+ * int        magic
+ * int        word count W
+ * int[W + 1] offsets of the words in the data
+ * byte[]     data, the words in UTF-8
+ * </pre>
+ *
+ * Word pack files are memory-mapped, so their words are not on the heap;
+ * only the picked words are decoded. The built-in pack is read once from
+ * {@link TextFile}, skipping empty lines, duplicates and words longer than
+ * {@value #MAX_WORD_LENGTH} characters. Immutable and thread-safe.
+ */
+public final class WordDictionary {
+    private static final int MAGIC = 0x57504B31;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MAX_WORD_LENGTH = 12;
+    private static final int STEP = 5;
+
+    private static final WordDictionary INSTANCE = parse(new TextFile().getWords());
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int dataAt;
+    private final List<String> words = new WordList();
+
+    private WordDictionary(ByteBuffer buffer) {
+        if(buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) { throw new IllegalArgumentException("Not a word pack"); }
+        this.buffer = buffer;
+        this.size = buffer.getInt(Integer.BYTES);
+        this.dataAt = HEADER_BYTES + (size + 1) * Integer.BYTES;
+        if(size < 0 || dataAt > buffer.limit() || dataAt + offset(size) > buffer.limit()) {
+            throw new IllegalArgumentException("Truncated word pack");
+        }
+    }
+
+    /**
+     * The built-in words.
+     */
+    public static WordDictionary getInstance() { return INSTANCE; }
+
+    static WordDictionary parse(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        int start = 0;
+        while(start < text.length()) {
+            int lineEnd = text.indexOf('\n', start);
+            if(lineEnd < 0) { lineEnd = text.length(); }
+            int length = lineEnd - start;
+            if(length > 0 && length <= MAX_WORD_LENGTH) {
+                words.add(text.substring(start, lineEnd));
+            }
+            start = lineEnd + 1;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(words, out);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return read(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    public static WordDictionary read(ByteBuffer buffer) {
+        return new WordDictionary(buffer.asReadOnlyBuffer());
+    }
+
+    /**
+     * Maps a word pack file into memory.
+     */
+    public static WordDictionary map(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new WordDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes a word pack.
+     */
+    public static void write(Iterable<String> words, OutputStream out) throws IOException {
+        List<byte[]> encoded = new ArrayList<>();
+        for(String word : words) { encoded.add(word.getBytes(StandardCharsets.UTF_8)); }
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(encoded.size());
+        int offset = 0;
+        data.writeInt(offset);
+        for(byte[] word : encoded) {
+            offset += word.length;
+            data.writeInt(offset);
+        }
+        for(byte[] word : encoded) { data.write(word); }
+        data.flush();
+    }
+
+    public int size() { return size; }
+
+    public String get(int index) {
+        if(index < 0 || index >= size) { throw new IndexOutOfBoundsException(index); }
+        int from = offset(index);
+        byte[] bytes = new byte[offset(index + 1) - from];
+        buffer.get(dataAt + from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * All words, as an unmodifiable view.
+     */
+    public List<String> getWords() { return words; }
+
+    /**
+     * Picks words starting at a random word and taking every fifth word from there.
+     * Only the picked words are decoded.
+     *
+     * @return a modifiable list of the words.
+     */
+    public List<String> getRandomWords(int amount) {
+        List<String> randWords = new ArrayList<>(amount);
+        int randIndex = ThreadLocalRandom.current().nextInt(0, size);
+        for(int i = 0; i < amount; i++) {
+            randWords.add(get(randIndex));
+            randIndex = (randIndex + STEP) % size;
+        }
+        return randWords;
+    }
+
+    private int offset(int index) {
+        return buffer.getInt(HEADER_BYTES + index * Integer.BYTES);
+    }
+
+    private final class WordList extends AbstractList<String> implements RandomAccess {
+        @Override
+        public String get(int index) { return WordDictionary.this.get(index); }
+
+        @Override
+        public int size() { return WordDictionary.this.size(); }
+    }
+}
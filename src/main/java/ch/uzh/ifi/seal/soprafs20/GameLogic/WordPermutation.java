@@ -0,0 +1,59 @@
+package ch.uzh.ifi.seal.soprafs20.GameLogic;
+
+/**
+ * A random permutation of the indices 0 to size - 1, determined by a seed.
+ * Positions are mapped one at a time without an index array: a Feistel
+ * network permutes the smallest even power of two covering the size, and
+ * values outside the size are walked along their cycle until they fall
+ * inside. As the domain is less than four times the size, a position takes
+ * less than four walks on average.
+ */
+public final class WordPermutation {
+    private static final int ROUNDS = 4;
+
+    private final int size;
+    private final long seed;
+    private final int halfBits;
+    private final int halfMask;
+
+    public WordPermutation(int size, long seed) {
+        if(size <= 0) { throw new IllegalArgumentException("The size must be positive"); }
+        int bits = Math.max(2, 32 - Integer.numberOfLeadingZeros(size - 1));
+        this.size = size;
+        this.seed = seed;
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1 << halfBits) - 1;
+    }
+
+    public int size() { return size; }
+
+    /**
+     * The index at a position of the permutation.
+     */
+    public int get(int position) {
+        if(position < 0 || position >= size) { throw new IndexOutOfBoundsException(position); }
+        int value = position;
+        do {
+            value = encrypt(value);
+        } while(value >= size);
+        return value;
+    }
+
+    private int encrypt(int value) {
+        int left = value >>> halfBits;
+        int right = value & halfMask;
+        for(int round = 0; round < ROUNDS; round++) {
+            int next = left ^ mix(round, right);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private int mix(int round, int value) {
+        long z = seed + (round + 1) * 0x9E3779B97F4A7C15L + value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int) (z ^ (z >>> 31)) & halfMask;
+    }
+}
@@ -0,0 +1,46 @@
+package ch.uzh.ifi.seal.soprafs20.config;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HttpClientConfig
+ * The HTTP client of the outbound API calls, shared by all requests.
+ * - connections are pooled and kept alive, so the rounds do not pay for TCP and TLS handshakes
+ * - connecting, waiting for a pooled connection and reading are bounded by {@code http.client.timeout-millis}
+ * - idle connections are closed after {@code http.client.idle-seconds}
+ */
+@Configuration
+public class HttpClientConfig {
+
+    private static final int MAX_CONNECTIONS = 20;
+
+    @Bean
+    public CloseableHttpClient outboundHttpClient(
+            @Value("${http.client.timeout-millis:3000}") int timeoutMillis,
+            @Value("${http.client.idle-seconds:30}") long idleSeconds) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(timeoutMillis)
+                .setConnectionRequestTimeout(timeoutMillis)
+                .setSocketTimeout(timeoutMillis)
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package ch.uzh.ifi.seal.soprafs20.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+/**
+ * JpaConfig
+ * The JPA vendor adapter, configured from {@code spring.jpa.*} like the auto-configured one.
+ * - the connection of a request goes back to the pool after each transaction
+ *   ({@code hibernate.connection.handling_mode}), since requests wait in {@code GameCommandExecutor}
+ *   for commands that may need a connection of their own
+ * - so a transaction is not guaranteed to end on the connection it began with, and Spring must not
+ *   prepare the connection (read-only flag, isolation) and reset it afterwards; read-only transactions
+ *   still switch the session to read-only and manual flushing
+ */
+@Configuration
+public class JpaConfig {
+
+    @Bean
+    public JpaVendorAdapter jpaVendorAdapter(JpaProperties properties) {
+        HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter();
+        adapter.setShowSql(properties.isShowSql());
+        if (properties.getDatabase() != null) {
+            adapter.setDatabase(properties.getDatabase());
+        }
+        if (properties.getDatabasePlatform() != null) {
+            adapter.setDatabasePlatform(properties.getDatabasePlatform());
+        }
+        adapter.setGenerateDdl(properties.isGenerateDdl());
+        adapter.setPrepareConnection(false);
+        return adapter;
+    }
+}
@@ -0,0 +1,150 @@
+package ch.uzh.ifi.seal.soprafs20.config;
+
+import ch.uzh.ifi.seal.soprafs20.entity.Lobby;
+import ch.uzh.ifi.seal.soprafs20.entity.Player;
+import ch.uzh.ifi.seal.soprafs20.exceptions.NotFoundException;
+import ch.uzh.ifi.seal.soprafs20.exceptions.UnauthorizedException;
+import ch.uzh.ifi.seal.soprafs20.repository.LobbyRepository;
+import ch.uzh.ifi.seal.soprafs20.repository.PlayerRepository;
+import ch.uzh.ifi.seal.soprafs20.service.GameEventPublisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * LobbyChannelInterceptor
+ * Authenticates STOMP connections by the player token sent in the {@code token} header of the CONNECT frame
+ * and only lets players of a lobby subscribe and send to the destinations of that lobby.
+ * Every other destination is denied, including patterns and the broker queues themselves,
+ * since the simple broker matches subscriptions as Ant patterns.
+ * Subscriptions to the game queue are registered with the {@code GameEventPublisher}.
+ */
+@Component
+public class LobbyChannelInterceptor implements ChannelInterceptor {
+
+    static final String TOKEN_HEADER = "token";
+
+    private static final Pattern LOBBY_SUBSCRIPTION = Pattern.compile(
+            "^/(?:topic/lobbies/(\\d+)(?:/chat|/timer)?|(?:user/queue|app)/lobbies/(\\d+)/game)$");
+
+    private static final Pattern LOBBY_COMMAND =
+            Pattern.compile("^/app/lobbies/(\\d+)/(?:chat|game/clue|game/guess|game/vote)$");
+
+    private static final String ERROR_QUEUE = "/user/queue/errors";
+
+    private static final Pattern GAME_QUEUE =
+            Pattern.compile("^/user/queue/lobbies/(\\d+)/game$");
+
+    private final PlayerRepository playerRepository;
+    private final LobbyRepository lobbyRepository;
+    private final ObjectProvider<GameEventPublisher> gameEventPublisher;
+
+    public LobbyChannelInterceptor(PlayerRepository playerRepository, LobbyRepository lobbyRepository,
+                                   ObjectProvider<GameEventPublisher> gameEventPublisher) {
+        this.playerRepository = playerRepository;
+        this.lobbyRepository = lobbyRepository;
+        this.gameEventPublisher = gameEventPublisher;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            authenticate(accessor);
+        }
+        else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            authorizeSubscription(accessor);
+        }
+        else if (StompCommand.SEND.equals(accessor.getCommand())) {
+            authorizeCommand(accessor);
+        }
+        return message;
+    }
+
+    private void authenticate(StompHeaderAccessor accessor) {
+        String token = accessor.getFirstNativeHeader(TOKEN_HEADER);
+        if (token == null || playerRepository.findByToken(token).isEmpty()) {
+            throw new UnauthorizedException("You are not allowed to connect!");
+        }
+        accessor.setUser(new PlayerPrincipal(token));
+    }
+
+    private void authorizeSubscription(StompHeaderAccessor accessor) {
+        String destination = checkDestination(accessor, "subscribe to");
+        if (destination.equals(ERROR_QUEUE)) {
+            return;
+        }
+        Matcher lobbySubscription = LOBBY_SUBSCRIPTION.matcher(destination);
+        if (!lobbySubscription.matches()) {
+            throw new UnauthorizedException("You are not allowed to subscribe to this destination!");
+        }
+        String lobbyGroup = lobbySubscription.group(1) != null ? lobbySubscription.group(1) : lobbySubscription.group(2);
+        Lobby lobby = checkPlayerOfLobby(accessor, Long.parseLong(lobbyGroup), "subscribe to");
+        if (GAME_QUEUE.matcher(destination).matches()) {
+            gameEventPublisher.getObject().subscribe(lobby.getLobbyId(), lobby.getCurrentNumBots(),
+                    accessor.getUser().getName(), accessor.getSessionId(), accessor.getSubscriptionId());
+        }
+    }
+
+    private void authorizeCommand(StompHeaderAccessor accessor) {
+        String destination = checkDestination(accessor, "send to");
+        Matcher lobbyCommand = LOBBY_COMMAND.matcher(destination);
+        if (!lobbyCommand.matches()) {
+            throw new UnauthorizedException("You are not allowed to send to this destination!");
+        }
+        checkPlayerOfLobby(accessor, Long.parseLong(lobbyCommand.group(1)), "send to");
+    }
+
+    private String checkDestination(StompHeaderAccessor accessor, String action) {
+        String destination = accessor.getDestination();
+        if (destination == null || destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0
+                || destination.indexOf('{') >= 0) {
+            throw new UnauthorizedException(String.format("You are not allowed to %s this destination!", action));
+        }
+        return destination;
+    }
+
+    private Lobby checkPlayerOfLobby(StompHeaderAccessor accessor, long lobbyId, String action) {
+        Principal user = accessor.getUser();
+        if (user == null) {
+            throw new UnauthorizedException(String.format("You are not allowed to %s this lobby!", action));
+        }
+        Lobby lobby = lobbyRepository.findByLobbyId(lobbyId)
+                .orElseThrow(() -> new NotFoundException("Couldn't find lobby."));
+        for (Player player : lobby.getPlayersInLobby()) {
+            if (player.getToken().equals(user.getName())) {
+                return lobby;
+            }
+        }
+        throw new UnauthorizedException(String.format("You are not allowed to %s this lobby!", action));
+    }
+
+    /**
+     * The player behind a STOMP connection, named by its token.
+     */
+    static final class PlayerPrincipal implements Principal {
+
+        private final String token;
+
+        PlayerPrincipal(String token) {
+            this.token = token;
+        }
+
+        @Override
+        public String getName() {
+            return token;
+        }
+    }
+}
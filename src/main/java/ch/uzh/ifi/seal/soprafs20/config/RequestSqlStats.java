@@ -0,0 +1,62 @@
+package ch.uzh.ifi.seal.soprafs20.config;
+
+/**
+ * RequestSqlStats
+ * The persistence work of the request handled by the current thread.
+ * - counted by the Hibernate hooks of the {@code SqlMetricsConfig}
+ * - work done on other threads, e.g. by the game writer, is not included
+ */
+public final class RequestSqlStats {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int flushes;
+    private int entitiesLoaded;
+
+    private RequestSqlStats() {
+    }
+
+    static RequestSqlStats start() {
+        RequestSqlStats stats = new RequestSqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    static void statementPrepared() {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+        }
+    }
+
+    static void flushed() {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.flushes++;
+        }
+    }
+
+    static void entityLoaded() {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.entitiesLoaded++;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getFlushes() {
+        return flushes;
+    }
+
+    public int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+}
@@ -0,0 +1,78 @@
+package ch.uzh.ifi.seal.soprafs20.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.boot.Metadata;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * SqlMetricsConfig
+ * Measures the persistence work of each REST endpoint.
+ * - Hibernate counts the SQL statements, flushes and loaded entities of the current request in {@code RequestSqlStats}
+ * - the {@code SqlMetricsFilter} publishes them per controller method, with the wall time of the request
+ * - with {@code metrics.sql.header-enabled} the statement count is also sent in the {@code X-Query-Count} header
+ */
+@Configuration
+public class SqlMetricsConfig {
+
+    private static final String INTEGRATOR_PROVIDER = "hibernate.integrator_provider";
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatsHibernateCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                RequestSqlStats.statementPrepared();
+                return sql;
+            });
+            properties.put(INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(new SqlStatsIntegrator()));
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlMetricsFilter> sqlMetricsFilter(
+            MeterRegistry meterRegistry,
+            @Value("${metrics.sql.header-enabled:false}") boolean headerEnabled) {
+        return new FilterRegistrationBean<>(new SqlMetricsFilter(meterRegistry, headerEnabled));
+    }
+
+    /**
+     * Registers the listeners counting the flushes and the loaded entities.
+     */
+    private static class SqlStatsIntegrator implements Integrator {
+
+        @Override
+        public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                              SessionFactoryServiceRegistry serviceRegistry) {
+            EventListenerRegistry listeners = serviceRegistry.getService(EventListenerRegistry.class);
+            listeners.appendListeners(EventType.FLUSH, (FlushEventListener) event -> RequestSqlStats.flushed());
+            listeners.appendListeners(EventType.AUTO_FLUSH, (AutoFlushEventListener) event -> {
+                if (event.isFlushRequired()) {
+                    RequestSqlStats.flushed();
+                }
+            });
+            listeners.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> RequestSqlStats.entityLoaded());
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory,
+                                 SessionFactoryServiceRegistry serviceRegistry) {
+            // the listeners are dropped with the session factory
+        }
+    }
+}
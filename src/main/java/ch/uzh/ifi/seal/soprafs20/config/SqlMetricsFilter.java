@@ -0,0 +1,141 @@
+package ch.uzh.ifi.seal.soprafs20.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SqlMetricsFilter
+ * Publishes the persistence work and the wall time of the requests to the REST controllers.
+ * - {@code endpoint.requests}, {@code endpoint.sql.statements}, {@code endpoint.sql.flushes} and
+ *   {@code endpoint.entities.loaded}, tagged with the {@code controller} and the {@code method}
+ * - the optional {@code X-Query-Count} header is set before the body is written, so SQL run while
+ *   serializing the body only shows up in the metrics
+ * - long-polls and event streams are measured until the request is parked
+ */
+public class SqlMetricsFilter extends OncePerRequestFilter {
+
+    static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean headerEnabled;
+    private final Map<Method, EndpointMeters> meters = new ConcurrentHashMap<>();
+
+    public SqlMetricsFilter(MeterRegistry meterRegistry, boolean headerEnabled) {
+        this.meterRegistry = meterRegistry;
+        this.headerEnabled = headerEnabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestSqlStats stats = RequestSqlStats.start();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, headerEnabled ? new QueryCountResponse(response, stats) : response);
+        } finally {
+            RequestSqlStats.stop();
+            if (headerEnabled && !response.isCommitted()) {
+                response.setHeader(QUERY_COUNT_HEADER, Integer.toString(stats.getStatements()));
+            }
+            Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+            if (handler instanceof HandlerMethod) {
+                record((HandlerMethod) handler, stats, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void record(HandlerMethod handler, RequestSqlStats stats, long nanos) {
+        if (!AnnotatedElementUtils.hasAnnotation(handler.getBeanType(), RestController.class)) {
+            return;
+        }
+        EndpointMeters endpoint = meters.computeIfAbsent(handler.getMethod(),
+                method -> new EndpointMeters(meterRegistry, handler.getBeanType().getSimpleName(), method.getName()));
+        endpoint.requests.record(nanos, TimeUnit.NANOSECONDS);
+        endpoint.statements.record(stats.getStatements());
+        endpoint.flushes.record(stats.getFlushes());
+        endpoint.entitiesLoaded.record(stats.getEntitiesLoaded());
+    }
+
+    private static class EndpointMeters {
+        private final Timer requests;
+        private final DistributionSummary statements;
+        private final DistributionSummary flushes;
+        private final DistributionSummary entitiesLoaded;
+
+        EndpointMeters(MeterRegistry registry, String controller, String method) {
+            requests = Timer.builder("endpoint.requests")
+                    .description("Wall time of the requests")
+                    .tag("controller", controller).tag("method", method)
+                    .register(registry);
+            statements = DistributionSummary.builder("endpoint.sql.statements")
+                    .description("SQL statements per request")
+                    .tag("controller", controller).tag("method", method)
+                    .register(registry);
+            flushes = DistributionSummary.builder("endpoint.sql.flushes")
+                    .description("Hibernate flushes per request")
+                    .tag("controller", controller).tag("method", method)
+                    .register(registry);
+            entitiesLoaded = DistributionSummary.builder("endpoint.entities.loaded")
+                    .description("Entities loaded per request")
+                    .tag("controller", controller).tag("method", method)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Sets the query count header when the body is about to be written.
+     */
+    private static class QueryCountResponse extends HttpServletResponseWrapper {
+        private final RequestSqlStats stats;
+        private boolean headerSet;
+
+        QueryCountResponse(HttpServletResponse response, RequestSqlStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setQueryCountHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setQueryCountHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setQueryCountHeader();
+            super.flushBuffer();
+        }
+
+        private void setQueryCountHeader() {
+            if (!headerSet && !isCommitted()) {
+                setHeader(QUERY_COUNT_HEADER, Integer.toString(stats.getStatements()));
+                headerSet = true;
+            }
+        }
+    }
+}
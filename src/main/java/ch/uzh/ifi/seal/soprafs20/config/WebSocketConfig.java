@@ -0,0 +1,46 @@
+package ch.uzh.ifi.seal.soprafs20.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+/**
+ * WebSocketConfig
+ * Clients connect to {@code /ws} with STOMP, passing their player token in the {@code token} header.
+ * - commands are sent to {@code /app/lobbies/{lobbyId}/...} (clue, vote, guess, chat)
+ * - lobby and chat changes are broadcast on {@code /topic/lobbies/{lobbyId}} and {@code /topic/lobbies/{lobbyId}/chat}
+ * - the remaining seconds of the current state are broadcast on {@code /topic/lobbies/{lobbyId}/timer}
+ * - the game view of each player is sent to {@code /user/queue/lobbies/{lobbyId}/game}
+ * - errors of commands are sent to {@code /user/queue/errors}
+ * - no other destination can be subscribed or sent to, see {@code LobbyChannelInterceptor}
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final LobbyChannelInterceptor lobbyChannelInterceptor;
+
+    public WebSocketConfig(LobbyChannelInterceptor lobbyChannelInterceptor) {
+        this.lobbyChannelInterceptor = lobbyChannelInterceptor;
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws").setAllowedOrigins("*");
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic", "/queue");
+        registry.setApplicationDestinationPrefixes("/app");
+        registry.setUserDestinationPrefix("/user");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(lobbyChannelInterceptor);
+    }
+}
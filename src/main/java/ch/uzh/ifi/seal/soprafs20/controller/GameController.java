@@ -1,74 +1,111 @@
 package ch.uzh.ifi.seal.soprafs20.controller;
 
 import ch.uzh.ifi.seal.soprafs20.GameLogic.GameState;
-import ch.uzh.ifi.seal.soprafs20.constant.AvatarColor;
 import ch.uzh.ifi.seal.soprafs20.entity.Game;
-import ch.uzh.ifi.seal.soprafs20.entity.Lobby;
 import ch.uzh.ifi.seal.soprafs20.entity.Player;
 import ch.uzh.ifi.seal.soprafs20.exceptions.UnauthorizedException;
 import ch.uzh.ifi.seal.soprafs20.rest.dto.CluePutDTO;
 import ch.uzh.ifi.seal.soprafs20.rest.dto.GameGetDTO;
 import ch.uzh.ifi.seal.soprafs20.rest.dto.MessagePutDTO;
 import ch.uzh.ifi.seal.soprafs20.rest.dto.VotePutDTO;
-import ch.uzh.ifi.seal.soprafs20.rest.mapper.DTOMapper;
+import ch.uzh.ifi.seal.soprafs20.rest.mapper.GameViewMapper;
+import ch.uzh.ifi.seal.soprafs20.service.GameCommandExecutor;
+import ch.uzh.ifi.seal.soprafs20.service.GameEventPublisher;
 import ch.uzh.ifi.seal.soprafs20.service.GameService;
+import ch.uzh.ifi.seal.soprafs20.service.GameTimers;
 import ch.uzh.ifi.seal.soprafs20.service.LobbyService;
 import ch.uzh.ifi.seal.soprafs20.service.PlayerService;
+import ch.uzh.ifi.seal.soprafs20.service.VersionRegistry;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.ArrayList;
+import java.security.Principal;
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.concurrent.TimeUnit;
 
 @RestController
 public class GameController {
+    private static final long MAX_POLL_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
     private final PlayerService playerService;
     private final GameService gameService;
     private final LobbyService lobbyService;
+    private final GameCommandExecutor gameCommandExecutor;
+    private final GameEventPublisher gameEventPublisher;
+    private final VersionRegistry versionRegistry;
+    private final GameTimers gameTimers;
 
 
-    GameController(PlayerService playerService, GameService gameService, LobbyService lobbyService) {
+    GameController(PlayerService playerService, GameService gameService, LobbyService lobbyService,
+                   GameCommandExecutor gameCommandExecutor, GameEventPublisher gameEventPublisher,
+                   VersionRegistry versionRegistry, GameTimers gameTimers) {
         this.playerService = playerService;
         this.gameService = gameService;
         this.lobbyService = lobbyService;
+        this.gameCommandExecutor = gameCommandExecutor;
+        this.gameEventPublisher = gameEventPublisher;
+        this.versionRegistry = versionRegistry;
+        this.gameTimers = gameTimers;
     }
 
     @GetMapping(path = "lobbies/{lobbyId}/game", produces = "application/json")
-    @ResponseStatus(HttpStatus.OK)
     @ResponseBody
-    public GameGetDTO getGame(@PathVariable Long lobbyId, @RequestParam("token") String token) {
+    public GameGetDTO getGame(@PathVariable Long lobbyId, @RequestParam("token") String token, WebRequest request) {
+        //the version is read before the game, so a change in between only leads to one more full response
+        if (request.checkNotModified(versionRegistry.getGameETag(lobbyId))) {
+            return null;
+        }
+        return getGameView(lobbyId, token);
+    }
+
+    //long-poll: answers once the game has moved past sinceVersion, the request is parked without a thread until then
+    @GetMapping(path = "lobbies/{lobbyId}/game", params = "sinceVersion", produces = "application/json")
+    public DeferredResult<ResponseEntity<String>> pollGame(@PathVariable Long lobbyId, @RequestParam("token") String token,
+                                                           @RequestParam long sinceVersion,
+                                                           @RequestParam(defaultValue = "30000") long waitMs) {
         Game game = gameService.getGame(lobbyId);
-        Lobby lobby = lobbyService.getLobby(lobbyId);
+        int bots = lobbyService.getCurrentNumBots(lobbyId);
+        long timeout = Math.min(waitMs, MAX_POLL_MILLIS);
+        return gameCommandExecutor.call(game,
+                () -> gameEventPublisher.poll(game, bots, token, sinceVersion, timeout));
+    }
 
-        GameGetDTO gameGetDTO = DTOMapper.INSTANCE.convertEntityToGameGetDTO(game);
+    private GameGetDTO getGameView(Long lobbyId, String token) {
+        Game game = gameService.getGame(lobbyId);
+        //only the number of bots of the lobby is needed, so the lobby and its players are not loaded
+        int bots = lobbyService.getCurrentNumBots(lobbyId);
 
-        for(int i = 0; i<lobby.getCurrentNumBots(); i++) {
-            Player botAsPlayer = new Player();
-            botAsPlayer.setId(0L);
-            botAsPlayer.setUsername("bot!");
-            botAsPlayer.setAvatarColor(AvatarColor.BOT);
-            botAsPlayer.setScore(-1);
-            gameGetDTO.addPlayer(botAsPlayer);
-        }
+        return gameCommandExecutor.call(game, () -> {
+            if (!GameViewMapper.isPlayer(game, token)) {
+                throw new UnauthorizedException("You are not allowed to access this game instance!");
+            }
+            //if guesser requests game, eliminate current word from dto
+            //only return invalid clues if the current state is ENTER_GUESS_STATE
+            return GameViewMapper.toView(game, bots, token);
+        });
+    }
 
-        List<String> tokens = new ArrayList<>();
-        for (Player player : game.getPlayers()) {
-            tokens.add(player.getToken());
-        }
-        if (!tokens.contains(token)) {
-            throw new UnauthorizedException("You are not allowed to access this game instance!");
-        }
-        //if guesser requests game, eliminate current word from dto
-        if (game.getCurrentGuesser().getToken().equals(token) && !game.getGameState().equals(GameState.TRANSITION_STATE)) {
-            gameGetDTO.setCurrentWord(null);
-            gameGetDTO.getInvalidClues().clear();
-        }
-        //only return invalid clues if the current state is ENTER_GUESS_STATE
-        if(!game.getGameState().equals(GameState.ENTER_GUESS_STATE)) {
-            gameGetDTO.getInvalidClues().clear();
-        }
-        return gameGetDTO;
+    @GetMapping(path = "lobbies/{lobbyId}/game/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamGame(@PathVariable Long lobbyId, @RequestParam("token") String token) {
+        Game game = gameService.getGame(lobbyId);
+        int bots = lobbyService.getCurrentNumBots(lobbyId);
+        return gameCommandExecutor.call(game, () -> gameEventPublisher.subscribe(game, bots, token));
+    }
+
+    //the client subscribes to /user/queue/lobbies/{lobbyId}/game for the updates and to this for the current view
+    @SubscribeMapping("/lobbies/{lobbyId}/game")
+    public GameGetDTO subscribeGame(@DestinationVariable Long lobbyId, Principal principal) {
+        return getGameView(lobbyId, principal.getName());
     }
 
     @PutMapping(path = "lobbies/{lobbyId}/game/clue", consumes = "application/json")
@@ -77,12 +114,17 @@ public class GameController {
     public void sendClue(@PathVariable long lobbyId, @RequestBody CluePutDTO cluePutDTO) {
         Game currentGame = gameService.getGame(lobbyId);
         Player player = playerService.getPlayer(cluePutDTO.getPlayerId());
-        //If all clues were sent, sendClue returns true and the game moves on to the next state
-        if (gameService.sendClue(currentGame, player, cluePutDTO)) {
-            currentGame.getTimer().setCancel(true);
-            currentGame.setGameState(GameState.VOTE_ON_CLUES_STATE);
-            gameService.setStartTime(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()), currentGame);
-        }
+        gameCommandExecutor.run(currentGame, () -> {
+            //If all clues were sent, sendClue returns true and the game moves on to the next state
+            if (gameService.sendClue(currentGame, player, cluePutDTO)) {
+                gameService.enterState(currentGame, GameState.VOTE_ON_CLUES_STATE);
+            }
+        });
+    }
+
+    @MessageMapping("/lobbies/{lobbyId}/game/clue")
+    public void sendClueOverStomp(@DestinationVariable long lobbyId, @Payload CluePutDTO cluePutDTO) {
+        sendClue(lobbyId, cluePutDTO);
     }
 
     @GetMapping(path = "lobbies/{lobbyId}/game/word")
@@ -90,44 +132,25 @@ public class GameController {
     @ResponseBody
     public void pickWord(@PathVariable long lobbyId, @RequestParam("token") String token) {
         Game game = gameService.getGame(lobbyId);
-        if (!game.getGameState().equals(GameState.PICK_WORD_STATE)) {
-            throw new UnauthorizedException("Can't choose word in current state");
-        }
-        if (gameService.pickWord(token, game)) {
-            game.getTimer().setCancel(true);
-            game.setGameState(GameState.ENTER_CLUES_STATE);
-            gameService.setStartTime(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()), game);
-        }
+        gameCommandExecutor.run(game, () -> {
+            if (!game.getGameState().equals(GameState.PICK_WORD_STATE)) {
+                throw new UnauthorizedException("Can't choose word in current state");
+            }
+            if (gameService.pickWord(token, game)) {
+                gameService.enterState(game, GameState.ENTER_CLUES_STATE);
+            }
+        });
     }
 
+    //the game views carry the deadline of the state, so clients can count down without polling this
     @GetMapping(path = "lobbies/{lobbyId}/game/timer")
     @ResponseStatus(HttpStatus.OK)
     public String getTimer(@PathVariable long lobbyId, @RequestParam String token) {
-        long currentTime = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
-        boolean found = false;
-        Game game = gameService.getGame(lobbyId);
-        for (Player p : game.getPlayers()) {
-            if (p.getToken().equals(token)) {
-                found = true;
-                break;
-            }
-        }
-        if (!found)
-            throw new UnauthorizedException("Not allowed to retrieve timer for this game!");
-        if (game.getStartTimeSeconds() == null) {
+        OptionalLong remainingSeconds = gameTimers.getRemainingSeconds(lobbyId, token);
+        if (!remainingSeconds.isPresent()) {
             return "No timer started yet";
         }
-        if (game.getGameState().equals(GameState.END_GAME_STATE)) {
-            return "0";
-        }
-        else {
-
-            long diff = gameService.getMaxTime(game) - (currentTime - game.getStartTimeSeconds());
-            if(diff < 0)
-                return "0";
-            else
-                return Long.toString(diff);
-        }
+        return Long.toString(remainingSeconds.getAsLong());
     }
 
     @PutMapping(path = "lobbies/{lobbyId}/game/guess")
@@ -135,11 +158,16 @@ public class GameController {
     @ResponseBody
     public void sendGuess(@PathVariable long lobbyId, @RequestBody MessagePutDTO messagePutDTO) {
         Game game = gameService.getGame(lobbyId);
-        gameService.submitGuess(game, messagePutDTO,TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) - game.getStartTimeSeconds());
-        gameService.updateScores(game);
-        game.getTimer().setCancel(true);
-        game.setGameState(GameState.TRANSITION_STATE);
-        gameService.setStartTime(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()), game);
+        gameCommandExecutor.run(game, () -> {
+            gameService.submitGuess(game, messagePutDTO,TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) - game.getStartTimeSeconds());
+            gameService.updateScores(game);
+            gameService.enterState(game, GameState.TRANSITION_STATE);
+        });
+    }
+
+    @MessageMapping("/lobbies/{lobbyId}/game/guess")
+    public void sendGuessOverStomp(@DestinationVariable long lobbyId, @Payload MessagePutDTO messagePutDTO) {
+        sendGuess(lobbyId, messagePutDTO);
     }
 
     @PutMapping(path = "lobbies/{lobbyId}/game/vote")
@@ -147,18 +175,23 @@ public class GameController {
     @ResponseBody
     public void vote(@PathVariable long lobbyId, @RequestBody VotePutDTO votePutDTO) {
         Game game = gameService.getGame(lobbyId);
-        if (!game.getGameState().equals(GameState.VOTE_ON_CLUES_STATE)) {
-            throw new UnauthorizedException("Can't vote on clues in current state!");
-        }
         Player player = playerService.getPlayerByToken(votePutDTO.getPlayerToken());
-        if (!game.getPlayers().contains(player) || game.getCurrentGuesser().equals(player)) {
-            throw new UnauthorizedException("This player is not allowed to vote on clues!");
-        }
-        List<String> invalidWords = votePutDTO.getInvalidClues();
-        if (gameService.vote(game, player, invalidWords)) {
-            game.getTimer().setCancel(true);
-            game.setGameState(GameState.ENTER_GUESS_STATE);
-            gameService.setStartTime(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()), game);
-        }
+        gameCommandExecutor.run(game, () -> {
+            if (!game.getGameState().equals(GameState.VOTE_ON_CLUES_STATE)) {
+                throw new UnauthorizedException("Can't vote on clues in current state!");
+            }
+            if (!game.getPlayers().contains(player) || game.getCurrentGuesser().equals(player)) {
+                throw new UnauthorizedException("This player is not allowed to vote on clues!");
+            }
+            List<String> invalidWords = votePutDTO.getInvalidClues();
+            if (gameService.vote(game, player, invalidWords)) {
+                gameService.enterState(game, GameState.ENTER_GUESS_STATE);
+            }
+        });
+    }
+
+    @MessageMapping("/lobbies/{lobbyId}/game/vote")
+    public void voteOverStomp(@DestinationVariable long lobbyId, @Payload VotePutDTO votePutDTO) {
+        vote(lobbyId, votePutDTO);
     }
 }
@@ -1,6 +1,5 @@
 package ch.uzh.ifi.seal.soprafs20.controller;
 
-import ch.uzh.ifi.seal.soprafs20.constant.AvatarColor;
 import ch.uzh.ifi.seal.soprafs20.entity.*;
 import ch.uzh.ifi.seal.soprafs20.exceptions.ConflictException;
 import ch.uzh.ifi.seal.soprafs20.exceptions.NotAcceptableException;
@@ -8,10 +7,15 @@ import ch.uzh.ifi.seal.soprafs20.exceptions.NotFoundException;
 import ch.uzh.ifi.seal.soprafs20.exceptions.UnauthorizedException;
 import ch.uzh.ifi.seal.soprafs20.rest.dto.*;
 import ch.uzh.ifi.seal.soprafs20.rest.mapper.DTOMapper;
+import ch.uzh.ifi.seal.soprafs20.rest.mapper.LobbyViewMapper;
 import ch.uzh.ifi.seal.soprafs20.service.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -29,9 +33,12 @@ public class LobbyController {
     private final MessageService messageService;
     private final GameService gameService;
     private final LobbyScoreService lobbyScoreService;
+    private final LobbyEventPublisher lobbyEventPublisher;
+    private final VersionRegistry versionRegistry;
 
     LobbyController(LobbyService lobbyService, UserService userService, PlayerService playerService,
-                    LobbyScoreService lobbyScoreService, ChatService chatService, MessageService messageService, GameService gameService){
+                    LobbyScoreService lobbyScoreService, ChatService chatService, MessageService messageService, GameService gameService,
+                    LobbyEventPublisher lobbyEventPublisher, VersionRegistry versionRegistry){
         this.lobbyService = lobbyService;
         this.userService = userService;
         this.playerService = playerService;
@@ -39,6 +46,8 @@ public class LobbyController {
         this.messageService = messageService;
         this.gameService = gameService;
         this.lobbyScoreService = lobbyScoreService;
+        this.lobbyEventPublisher = lobbyEventPublisher;
+        this.versionRegistry = versionRegistry;
     }
 
 
@@ -65,6 +74,7 @@ public class LobbyController {
 
             //create chat for lobby
             chatService.createChat(createdLobby.getLobbyId());
+            lobbyEventPublisher.lobbyChanged(createdLobby);
 
             URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{lobbyId}")
                     .buildAndExpand(createdLobby.getLobbyId()).toUri();
@@ -77,9 +87,11 @@ public class LobbyController {
     }
 
     @GetMapping(path = "/lobbies", produces = "application/json")
-    @ResponseStatus(HttpStatus.OK)
     @ResponseBody
-    public List<LobbyGetDTO> getAllLobbies(@RequestParam("token") String token) {
+    public List<LobbyGetDTO> getAllLobbies(@RequestParam("token") String token, WebRequest request) {
+        if (request.checkNotModified(versionRegistry.getLobbyListETag())) {
+            return null;
+        }
         userService.getUserByToken(token);
         // fetch all lobbies in the internal representation
         List<Lobby> lobbies = lobbyService.getLobbies();
@@ -102,8 +114,8 @@ public class LobbyController {
             throw new ConflictException("Invalid amount of players to start the game");
         }
         Game createdGame = gameService.createGame(lobby, gamePostDTO);
-        gameService.setTimer(createdGame);
         gameService.timer(createdGame);
+        lobbyEventPublisher.lobbyChanged(lobby);
 
         URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/game")
                 .build().toUri();
@@ -116,6 +128,7 @@ public class LobbyController {
     public void updateLobby(@PathVariable long lobbyId, @RequestBody LobbyPutDTO lobbyPutDTO){
         Lobby lobby = lobbyService.getLobby(lobbyId);
         lobbyService.updateLobby(lobby,lobbyPutDTO);
+        lobbyEventPublisher.lobbyChanged(lobby);
     }
 
     @PutMapping(path = "/lobbies/{lobbyId}/kick", consumes = "application/json")
@@ -131,25 +144,17 @@ public class LobbyController {
             playerToKick = playerService.getPlayer(lobbyPutDTO.getPlayerToKickId());
         }
         lobbyService.kickPlayers(lobby,playerToKick);
+        lobbyEventPublisher.lobbyChanged(lobby);
     }
 
     @GetMapping(path = "/lobbies/{lobbyId}", produces = "application/json")
-    @ResponseStatus(HttpStatus.OK)
     @ResponseBody
-    public LobbyGetDTO getLobby(@PathVariable long lobbyId) {
-        Lobby lobby = lobbyService.getLobby(lobbyId);
-
-        LobbyGetDTO lobbyGetDTO = DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobby);
-        for(int i = 0; i<lobby.getCurrentNumBots(); i++) {
-            Player botAsPlayer = new Player();
-            botAsPlayer.setId(0L);
-            botAsPlayer.setUsername("bot!");
-            botAsPlayer.setAvatarColor(AvatarColor.BOT);
-            botAsPlayer.setScore(-1);
-            lobbyGetDTO.addPlayersInLobby(botAsPlayer);
+    public LobbyGetDTO getLobby(@PathVariable long lobbyId, WebRequest request) {
+        if (request.checkNotModified(versionRegistry.getLobbyETag(lobbyId))) {
+            return null;
         }
-
-        return lobbyGetDTO;
+        Lobby lobby = lobbyService.getLobby(lobbyId);
+        return LobbyViewMapper.toView(lobby);
     }
 
     @PutMapping(path = "/lobbies/{lobbyId}/invitations", consumes = "application/json")
@@ -172,15 +177,18 @@ public class LobbyController {
             playerService.checkPlayerToken(user.getToken(), lobbyAcceptancePutDTO.getAccepterToken());
             Player player = playerService.convertUserToPlayer(user);
             lobbyService.addPlayerToLobby(lobbyAcceptancePutDTO.getAccepterToken(), player, lobby);
+            lobbyEventPublisher.lobbyChanged(lobby);
         }
 
         return DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobby);
     }
 
     @GetMapping(path = "/lobbies/{lobbyId}/chat", produces = "application/json")
-    @ResponseStatus(HttpStatus.OK)
     @ResponseBody
-    public ChatGetDTO getChatMessages(@PathVariable long lobbyId,@RequestParam("token") String token) {
+    public ChatGetDTO getChatMessages(@PathVariable long lobbyId,@RequestParam("token") String token, WebRequest request) {
+        if (request.checkNotModified(versionRegistry.getChatETag(lobbyId))) {
+            return null;
+        }
         boolean found = false;
         Lobby lobby = lobbyService.getLobby(lobbyId);
         for (Player player : lobby.getPlayersInLobby()){
@@ -212,9 +220,15 @@ public class LobbyController {
         }
         if(messagePutDTO.getMessage().length() <= 51) {
             chatService.addChatMessage(lobby, author.getToken(), message);
+            lobbyEventPublisher.chatMessage(lobbyId, DTOMapper.INSTANCE.convertEntityToMessageGetDTO(message));
         }
     }
 
+    @MessageMapping("/lobbies/{lobbyId}/chat")
+    public void addChatMessageOverStomp(@DestinationVariable long lobbyId, @Payload MessagePutDTO messagePutDTO) {
+        addChatMessage(lobbyId, messagePutDTO);
+    }
+
     @PutMapping(path = "/lobbies/{lobbyId}/joins", consumes = "application/json")
     @ResponseStatus(HttpStatus.OK)
     @ResponseBody
@@ -233,6 +247,7 @@ public class LobbyController {
             playerService.deletePlayer(player);
             throw e;
         }
+        lobbyEventPublisher.lobbyChanged(lobby);
 
     }
 
@@ -244,6 +259,7 @@ public class LobbyController {
         Player playerToBeRemoved = playerService.getPlayer(joinLeavePutDTO.getPlayerId());
         lobbyService.removePlayerFromLobby(playerToBeRemoved, lobby);
         playerService.deletePlayer(playerToBeRemoved);
+        lobbyEventPublisher.lobbyChanged(lobby);
     }
 
     @GetMapping(path = "lobbies/scores",produces = "application/json")
@@ -16,7 +16,9 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -173,10 +175,16 @@ public class UserController {
             throw new UnauthorizedException("Can't access users lobby invites!");
         }
         Set<Lobby> invites = user.getLobbyInvites();
+        Set<Long> hostIds = new HashSet<>();
+        for(Lobby lobby : invites){
+            hostIds.add(lobby.getHostId());
+        }
+        //the host names are read in one query instead of loading every host
+        Map<Long, String> hostNames = userService.getUsernames(hostIds);
         List<InviteGetDTO> lobbies = new ArrayList<>();
         for(Lobby lobby : invites){
             InviteGetDTO inviteGetDTO = DTOMapper.INSTANCE.convertEntityToInviteGetDTO(lobby);
-            inviteGetDTO.setHostName(userService.getUser(lobby.getHostId()).getUsername());
+            inviteGetDTO.setHostName(hostNames.get(lobby.getHostId()));
             lobbies.add(inviteGetDTO);
         }
         return lobbies;
@@ -6,7 +6,9 @@ import org.hibernate.annotations.FetchMode;
 
 import javax.persistence.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Entity
@@ -22,7 +24,7 @@ public class Game {
     @Column
     private String lobbyName;
 
-    @OneToMany(fetch = FetchType.EAGER)
+    @OneToMany(fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @Cascade(org.hibernate.annotations.CascadeType.ALL)
     private List<Player> players = new ArrayList<>();
@@ -39,20 +41,28 @@ public class Game {
     @Column(nullable = false)
     private boolean specialGame;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @Fetch(value = FetchMode.SUBSELECT)
-    private List<String> words = new ArrayList<>();
+    @Column
+    private String wordPack;
+
+    @Column
+    @Convert(converter = WordIndicesConverter.class)
+    private int[] wordIndices = new int[0];
 
-    @OneToMany(fetch = FetchType.EAGER)
+    @OneToMany(fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @Cascade(org.hibernate.annotations.CascadeType.ALL)
     private List<Clue> enteredClues = new ArrayList<>();
 
-    @OneToMany(fetch = FetchType.EAGER)
+    @OneToMany(fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @Cascade(org.hibernate.annotations.CascadeType.ALL)
     private List<Clue> invalidClues = new ArrayList<>();
 
+    // one count per entered clue, which are at most 30 characters long, see NLP
+    @Column(length = 4096)
+    @Convert(converter = VoteCountsConverter.class)
+    private Map<String, Integer> votes = new HashMap<>();
+
     @Column
     private GameState gameState;
 
@@ -62,6 +72,9 @@ public class Game {
     @Column
     private Long startTimeSeconds;
 
+    @Column
+    private Long deadline;
+
     @Column
     private String currentGuess;
 
@@ -71,10 +84,6 @@ public class Game {
     @Column
     private Integer rounds;
 
-
-    @OneToOne(cascade = {CascadeType.ALL}, fetch = FetchType.EAGER)
-    private InternalTimer timer;
-
     public Long getLobbyId() {
         return lobbyId;
     }
@@ -126,13 +135,16 @@ public class Game {
         this.enteredClues.add(clue);
     }
 
-    public List<String> getWords() {
-        return words;
-    }
+    public String getWordPack() { return wordPack; }
 
-    public void setWords(List<String> words) {
-        this.words = words;
-    }
+    public void setWordPack(String wordPack) { this.wordPack = wordPack; }
+
+    /**
+     * The indices of the remaining words in the word pack, the next word last.
+     */
+    public int[] getWordIndices() { return wordIndices; }
+
+    public void setWordIndices(int[] wordIndices) { this.wordIndices = wordIndices; }
 
     public GameState getGameState () { return gameState; }
 
@@ -170,6 +182,14 @@ public class Game {
         this.startTimeSeconds = startTime;
     }
 
+    public Long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Long deadline) {
+        this.deadline = deadline;
+    }
+
     public String getCurrentGuess() { return currentGuess; }
 
     public void setCurrentGuess(String currentGuess) { this.currentGuess = currentGuess.toLowerCase(); }
@@ -182,14 +202,6 @@ public class Game {
         this.specialGame = specialGame;
     }
 
-    public InternalTimer getTimer() {
-        return timer;
-    }
-
-    public void setTimer(InternalTimer timer) {
-        this.timer = timer;
-    }
-
     public long getTime() {
         return time;
     }
@@ -230,6 +242,35 @@ public class Game {
         }
     }
 
+    /**
+     * Opens the voting on the entered clues of the current round.
+     * Only votes against these clues are counted.
+     */
+    public void openVotes() {
+        votes.clear();
+        for (Clue clue : enteredClues) {
+            votes.put(clue.getActualClue().toLowerCase(), 0);
+        }
+    }
+
+    /**
+     * Counts a vote against an entered clue of the current round, ignoring the case.
+     * Votes against other words are ignored.
+     */
+    public void addVote(String clue) {
+        votes.computeIfPresent(clue.toLowerCase(), (word, count) -> count + 1);
+    }
+
+    /**
+     * The votes against a clue of the current round, ignoring the case.
+     */
+    public int getVotes(String clue) {
+        return votes.getOrDefault(clue.toLowerCase(), 0);
+    }
+
+    public void clearVotes() {
+        votes.clear();
+    }
 
     @Override
     public boolean equals(Object o) {
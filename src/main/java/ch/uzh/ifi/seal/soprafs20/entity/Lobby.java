@@ -61,13 +61,22 @@ public class Lobby implements Serializable {
     @JsonBackReference
     private Set<User> invitedUsers = new HashSet<>();
 
-    @OneToMany(fetch = FetchType.EAGER)
+    @OneToMany(fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     private Set<Player> playersInLobby = new HashSet<>();
 
     @Column(nullable = false)
     private Integer rounds;
 
+    @Column
+    private String wordPack;
+
+    @Column
+    private Long wordSeed;
+
+    @Column
+    private Integer wordCursor;
+
     public Long getLobbyId() {
         return lobbyId;
     }
@@ -186,4 +195,16 @@ public class Lobby implements Serializable {
     public Integer getRounds(){
         return this.rounds;
     }
+
+    public String getWordPack() { return wordPack; }
+
+    public void setWordPack(String wordPack) { this.wordPack = wordPack; }
+
+    public Long getWordSeed() { return wordSeed; }
+
+    public void setWordSeed(Long wordSeed) { this.wordSeed = wordSeed; }
+
+    public Integer getWordCursor() { return wordCursor; }
+
+    public void setWordCursor(Integer wordCursor) { this.wordCursor = wordCursor; }
 }
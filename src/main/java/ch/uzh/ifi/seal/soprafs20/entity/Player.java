@@ -42,7 +42,7 @@ public class Player {
     @Column
     private volatile boolean voted;
 
-    @OneToMany(fetch = FetchType.EAGER)
+    @OneToMany(fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @Cascade(org.hibernate.annotations.CascadeType.ALL)
     private List<Clue> clues = new ArrayList<>();
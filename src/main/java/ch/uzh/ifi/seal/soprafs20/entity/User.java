@@ -62,16 +62,16 @@ public class User implements Serializable {
     @Column
     private int score;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     private Set<User> friendRequests = new HashSet<>();
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     private Set<User> friendList = new HashSet<>();
 
     @Cascade(org.hibernate.annotations.CascadeType.REMOVE)
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @JsonManagedReference
     private Set<Lobby> lobbyInvites = new HashSet<>();
@@ -0,0 +1,55 @@
+package ch.uzh.ifi.seal.soprafs20.entity;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores the vote counts of a game in a single binary column,
+ * the amount of clues followed by each clue and its count.
+ */
+@Converter
+public class VoteCountsConverter implements AttributeConverter<Map<String, Integer>, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(Map<String, Integer> votes) {
+        if (votes == null) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(votes.size());
+            for (Map.Entry<String, Integer> vote : votes.entrySet()) {
+                out.writeUTF(vote.getKey());
+                out.writeInt(vote.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Map<String, Integer> convertToEntityAttribute(byte[] column) {
+        Map<String, Integer> votes = new HashMap<>();
+        if (column == null) {
+            return votes;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(column))) {
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                votes.put(in.readUTF(), in.readInt());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return votes;
+    }
+}
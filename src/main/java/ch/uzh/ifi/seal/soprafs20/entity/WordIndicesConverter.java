@@ -0,0 +1,33 @@
+package ch.uzh.ifi.seal.soprafs20.entity;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.nio.ByteBuffer;
+
+/**
+ * Stores the word indices of a game in a single binary column,
+ * four bytes per index.
+ */
+@Converter
+public class WordIndicesConverter implements AttributeConverter<int[], byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(int[] indices) {
+        if (indices == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(indices.length * Integer.BYTES);
+        buffer.asIntBuffer().put(indices);
+        return buffer.array();
+    }
+
+    @Override
+    public int[] convertToEntityAttribute(byte[] column) {
+        if (column == null) {
+            return new int[0];
+        }
+        int[] indices = new int[column.length / Integer.BYTES];
+        ByteBuffer.wrap(column).asIntBuffer().get(indices);
+        return indices;
+    }
+}
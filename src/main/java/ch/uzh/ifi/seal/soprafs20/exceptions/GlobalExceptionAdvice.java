@@ -6,6 +6,8 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.transaction.TransactionSystemException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -93,6 +95,14 @@ public class GlobalExceptionAdvice extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(ex.getMessage(),HttpStatus.FORBIDDEN);
     }
 
+    //commands sent over STOMP have no response, so their errors are sent to the queue of the sender
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public String handleMessageException(RuntimeException ex) {
+        log.error(String.format("Exception raised over STOMP:%s", ex));
+        return ex.getMessage();
+    }
+
 //    //Keep this one disable for all testing purposes -> it shows more detail with this one disabled
 //    @ExceptionHandler(HttpServerErrorException.InternalServerError.class)
 //    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
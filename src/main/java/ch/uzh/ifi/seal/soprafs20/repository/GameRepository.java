@@ -1,12 +1,27 @@
 package ch.uzh.ifi.seal.soprafs20.repository;
 
 import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * The games are read with their players and guesser in one query, the clues are loaded
+ * when the game is put into the live game store.
+ */
 @Repository("gameRepository")
 public interface GameRepository extends JpaRepository<Game, Long> {
+    @EntityGraph(attributePaths = {"players", "currentGuesser"})
     Optional<Game> findByLobbyId(long lobbyId);
+
+    @Override
+    @EntityGraph(attributePaths = {"players", "currentGuesser"})
+    Optional<Game> findById(Long lobbyId);
+
+    @Override
+    @EntityGraph(attributePaths = {"players", "currentGuesser"})
+    List<Game> findAll();
 }
@@ -1,18 +1,35 @@
 package ch.uzh.ifi.seal.soprafs20.repository;
 
 import ch.uzh.ifi.seal.soprafs20.entity.Lobby;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * The lobbies are read with their players in one query, the players' clues are not loaded.
+ */
 @Repository("lobbyRepository")
 public interface LobbyRepository extends JpaRepository<Lobby, Long> {
+    @EntityGraph(attributePaths = "playersInLobby")
     Optional<Lobby> findByLobbyId(long lobbyId);
     Optional<Lobby> findByHostId(long userId);
 
+    @Override
+    @EntityGraph(attributePaths = "playersInLobby")
+    Optional<Lobby> findById(Long lobbyId);
+
+    @Override
+    @EntityGraph(attributePaths = "playersInLobby")
+    List<Lobby> findAll();
+
+    @Query(value = "SELECT l.currentNumBots FROM Lobby l WHERE l.lobbyId = :lobbyId")
+    Optional<Integer> findCurrentNumBotsByLobbyId(@Param("lobbyId") long lobbyId);
+
     @Query(value = "SELECT lobbyName, lobbyScore FROM Lobby")
     List<Lobby> getLobbiesByLobbyScore();
 }
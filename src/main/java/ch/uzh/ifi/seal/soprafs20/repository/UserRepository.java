@@ -4,6 +4,7 @@ import ch.uzh.ifi.seal.soprafs20.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +14,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByToken(String token);
     Optional<User> findById(Long id);
     List<User> findAllByOrderByScoreDesc();
+
+    List<UsernameView> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Reads only the id and username of a user.
+     */
+    interface UsernameView {
+        Long getId();
+        String getUsername();
+    }
 }
@@ -23,6 +23,7 @@ public class GameGetDTO {
     private boolean isGuessCorrect;
     private String currentGuess;
     private Integer rounds;
+    private Long deadline;
 
 
     public List<PlayerGetDTO> getPlayers() {
@@ -141,4 +142,12 @@ public class GameGetDTO {
     public void setRounds(Integer rounds) {
         this.rounds = rounds;
     }
+
+    public Long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Long deadline) {
+        this.deadline = deadline;
+    }
 }
@@ -33,6 +33,8 @@ public class LobbyGetDTO {
 
     private Integer rounds;
 
+    private String wordPack;
+
 
     public String getLobbyName() {
         return lobbyName;
@@ -141,4 +143,12 @@ public class LobbyGetDTO {
     public void setRounds(Integer rounds) {
         this.rounds = rounds;
     }
+
+    public String getWordPack() {
+        return wordPack;
+    }
+
+    public void setWordPack(String wordPack) {
+        this.wordPack = wordPack;
+    }
 }
@@ -7,6 +7,7 @@ public class LobbyPutDTO {
     private Long playerToKickId;
     private String hostToken;
     private Integer rounds;
+    private String wordPack;
 
     public Integer getMaxNumberOfPlayersAndBots() {
         return maxNumberOfPlayersAndBots;
@@ -43,4 +44,12 @@ public class LobbyPutDTO {
     public void setRounds(Integer rounds) {
         this.rounds = rounds;
     }
+
+    public String getWordPack() {
+        return wordPack;
+    }
+
+    public void setWordPack(String wordPack) {
+        this.wordPack = wordPack;
+    }
 }
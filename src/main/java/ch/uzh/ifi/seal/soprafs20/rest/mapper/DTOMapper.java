@@ -56,6 +56,7 @@ public interface DTOMapper {
     @Mapping(source = "currentNumPlayers", target = "currentNumPlayers")
     @Mapping(source = "currentNumBots", target = "currentNumBots")
     @Mapping(source = "gameStarted", target = "gameStarted")
+    @Mapping(source = "wordPack", target = "wordPack")
     @Mapping(target = "currentNumPlayersAndBots", ignore = true)
     LobbyGetDTO convertEntityToLobbyGetDTO(Lobby lobby);
 
@@ -101,6 +102,7 @@ public interface DTOMapper {
     @Mapping(source = "specialGame", target = "specialGame")
     @Mapping(source = "currentGuess", target = "currentGuess")
     @Mapping(source = "rounds", target = "rounds")
+    @Mapping(source = "deadline", target = "deadline")
     GameGetDTO convertEntityToGameGetDTO(Game game);
 
     @Mapping(source = "messageId", target = "messageId")
@@ -0,0 +1,105 @@
+package ch.uzh.ifi.seal.soprafs20.rest.mapper;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.GameState;
+import ch.uzh.ifi.seal.soprafs20.constant.AvatarColor;
+import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import ch.uzh.ifi.seal.soprafs20.entity.Player;
+import ch.uzh.ifi.seal.soprafs20.rest.dto.GameGetDTO;
+
+/**
+ * GameViewMapper
+ * Builds the views of a game that are sent to the players.
+ * There are two views per game state: the guesser never sees the current word
+ * (except in the transition state) nor the invalid clues, all other players
+ * only see the invalid clues while the guesser enters the guess.
+ */
+public final class GameViewMapper {
+
+    private GameViewMapper() {
+    }
+
+    /**
+     * Builds the view of the guesser.
+     *
+     * @param game    the game.
+     * @param numBots the amount of bots in the lobby.
+     * @return the view of the guesser.
+     */
+    public static GameGetDTO toGuesserView(Game game, int numBots) {
+        GameGetDTO gameGetDTO = toView(game, numBots);
+        if (!game.getGameState().equals(GameState.TRANSITION_STATE)) {
+            gameGetDTO.setCurrentWord(null);
+        }
+        gameGetDTO.getInvalidClues().clear();
+        return gameGetDTO;
+    }
+
+    /**
+     * Builds the view of all players except the guesser.
+     *
+     * @param game    the game.
+     * @param numBots the amount of bots in the lobby.
+     * @return the view of the other players.
+     */
+    public static GameGetDTO toPlayerView(Game game, int numBots) {
+        GameGetDTO gameGetDTO = toView(game, numBots);
+        if (!game.getGameState().equals(GameState.ENTER_GUESS_STATE)) {
+            gameGetDTO.getInvalidClues().clear();
+        }
+        return gameGetDTO;
+    }
+
+    /**
+     * Builds the view of a game for the player with the given token.
+     *
+     * @param game    the game.
+     * @param numBots the amount of bots in the lobby.
+     * @param token   the token of the player.
+     * @return the view of the player.
+     */
+    public static GameGetDTO toView(Game game, int numBots, String token) {
+        return isGuesser(game, token)
+                ? toGuesserView(game, numBots)
+                : toPlayerView(game, numBots);
+    }
+
+    /**
+     * Checks whether a token belongs to a player of the game.
+     *
+     * @param game  the game.
+     * @param token the token.
+     * @return whether the token belongs to a player of the game.
+     */
+    public static boolean isPlayer(Game game, String token) {
+        for (Player player : game.getPlayers()) {
+            if (player.getToken().equals(token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a token belongs to the current guesser.
+     *
+     * @param game  the game.
+     * @param token the token.
+     * @return whether the token belongs to the current guesser.
+     */
+    public static boolean isGuesser(Game game, String token) {
+        return game.getCurrentGuesser().getToken().equals(token);
+    }
+
+    private static GameGetDTO toView(Game game, int numBots) {
+        GameGetDTO gameGetDTO = DTOMapper.INSTANCE.convertEntityToGameGetDTO(game);
+        for (int i = 0; i < numBots; i++) {
+            Player botAsPlayer = new Player();
+            botAsPlayer.setId(0L);
+            botAsPlayer.setUsername("bot!");
+            botAsPlayer.setAvatarColor(AvatarColor.BOT);
+            botAsPlayer.setScore(-1);
+            gameGetDTO.addPlayer(botAsPlayer);
+        }
+        return gameGetDTO;
+    }
+}
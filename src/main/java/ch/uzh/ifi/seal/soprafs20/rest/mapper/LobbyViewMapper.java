@@ -0,0 +1,35 @@
+package ch.uzh.ifi.seal.soprafs20.rest.mapper;
+
+import ch.uzh.ifi.seal.soprafs20.constant.AvatarColor;
+import ch.uzh.ifi.seal.soprafs20.entity.Lobby;
+import ch.uzh.ifi.seal.soprafs20.entity.Player;
+import ch.uzh.ifi.seal.soprafs20.rest.dto.LobbyGetDTO;
+
+/**
+ * LobbyViewMapper
+ * Builds the view of a lobby that is sent to the players, with a placeholder player for each bot.
+ */
+public final class LobbyViewMapper {
+
+    private LobbyViewMapper() {
+    }
+
+    /**
+     * Builds the view of a lobby.
+     *
+     * @param lobby the lobby.
+     * @return the view of the lobby.
+     */
+    public static LobbyGetDTO toView(Lobby lobby) {
+        LobbyGetDTO lobbyGetDTO = DTOMapper.INSTANCE.convertEntityToLobbyGetDTO(lobby);
+        for (int i = 0; i < lobby.getCurrentNumBots(); i++) {
+            Player botAsPlayer = new Player();
+            botAsPlayer.setId(0L);
+            botAsPlayer.setUsername("bot!");
+            botAsPlayer.setAvatarColor(AvatarColor.BOT);
+            botAsPlayer.setScore(-1);
+            lobbyGetDTO.addPlayersInLobby(botAsPlayer);
+        }
+        return lobbyGetDTO;
+    }
+}
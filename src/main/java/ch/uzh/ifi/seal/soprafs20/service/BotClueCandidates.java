@@ -0,0 +1,185 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fetches the clue candidates of the bots in the background.
+ * The candidates of a word are fetched as soon as the word is picked,
+ * so they are usually available when the bots have to send their clues.
+ * The candidates are cached per word. The bots never wait for a fetch,
+ * since they send their clues on the thread of the game: if the fetch
+ * failed or is still pending, the cached candidates are used, if there
+ * are any.
+ */
+@Component
+public class BotClueCandidates {
+
+    /**
+     * The amount of threads fetching candidates.
+     */
+    private static final int FETCH_THREADS = 4;
+
+    /**
+     * The maximum amount of words whose candidates are cached.
+     */
+    private static final int MAX_CACHED_WORDS = 2_000;
+
+    private final Logger log = LoggerFactory.getLogger(BotClueCandidates.class);
+
+    /**
+     * Finds the candidates.
+     */
+    private final RelatedWordsClient relatedWordsClient;
+
+    /**
+     * Runs the fetches.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The pending or completed fetch of each game, keyed by lobby id.
+     */
+    private final Map<Long, Prefetch> prefetches = new ConcurrentHashMap<>();
+
+    /**
+     * The candidates, keyed by word.
+     */
+    private final Cache<String, List<String>> cache =
+            Caffeine.newBuilder().maximumSize(MAX_CACHED_WORDS).build();
+
+    /**
+     * Constructs an instance of this class.
+     *
+     * @param relatedWordsClient finds the candidates
+     */
+    @Autowired
+    public BotClueCandidates(final RelatedWordsClient relatedWordsClient) {
+        this(relatedWordsClient, Executors.newFixedThreadPool(FETCH_THREADS,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bot-clues");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    BotClueCandidates(final RelatedWordsClient relatedWordsClient,
+                      final ExecutorService executor) {
+        this.relatedWordsClient = relatedWordsClient;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts fetching the candidates of the current word of a game.
+     * A pending fetch of a previous word of the game is cancelled.
+     *
+     * @param lobbyId the lobby id of the game.
+     * @param word    the current word.
+     */
+    public void prefetch(final Long lobbyId, final String word) {
+        Prefetch previous = prefetches.put(lobbyId,
+                new Prefetch(word, fetch(word)));
+        if (previous != null) {
+            previous.candidates.cancel(false);
+        }
+    }
+
+    /**
+     * Gets the candidates of the current word of a game without waiting.
+     * The word is fetched if it was not prefetched. A fetch that is still
+     * pending keeps running, so its candidates are cached for the next
+     * time the word is drawn.
+     *
+     * @param lobbyId the lobby id of the game.
+     * @param word    the current word.
+     * @return the candidates, the best first; the cached ones or none if
+     * they are not fetched yet.
+     */
+    public List<String> get(final Long lobbyId, final String word) {
+        Prefetch prefetch = prefetches.remove(lobbyId);
+        CompletableFuture<List<String>> candidates =
+                prefetch != null && prefetch.word.equals(word)
+                ? prefetch.candidates
+                : fetch(word);
+        if (!candidates.isDone()) {
+            log.warn(String.format("Clue candidates of %s not fetched yet",
+                    word));
+            return getCached(word);
+        }
+        try {
+            return candidates.join();
+        } catch (CompletionException ex) {
+            log.warn(String.format("Clue candidates of %s not fetched: %s",
+                    word, ex.getCause()));
+        }
+        return getCached(word);
+    }
+
+    /**
+     * Gets the cached candidates of a word.
+     *
+     * @param word the word.
+     * @return the candidates or none if they are not cached.
+     */
+    public List<String> getCached(final String word) {
+        List<String> candidates = cache.getIfPresent(word);
+        return candidates == null ? Collections.emptyList() : candidates;
+    }
+
+    /**
+     * Cancels the pending fetch of a game.
+     *
+     * @param lobbyId the lobby id of the game.
+     */
+    public void cancel(final Long lobbyId) {
+        Prefetch prefetch = prefetches.remove(lobbyId);
+        if (prefetch != null) {
+            prefetch.candidates.cancel(false);
+        }
+    }
+
+    /**
+     * Stops fetching.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<List<String>> fetch(final String word) {
+        List<String> cached = cache.getIfPresent(word);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            List<String> candidates = relatedWordsClient.getRelatedWords(word);
+            cache.put(word, candidates);
+            return candidates;
+        }, executor);
+    }
+
+    private static final class Prefetch {
+        private final String word;
+        private final CompletableFuture<List<String>> candidates;
+
+        private Prefetch(final String word,
+                         final CompletableFuture<List<String>> candidates) {
+            this.word = word;
+            this.candidates = candidates;
+        }
+    }
+}
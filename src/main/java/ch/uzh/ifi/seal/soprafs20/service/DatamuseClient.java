@@ -0,0 +1,172 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds related words with the "means like" query of the Datamuse API.
+ * The url can be set with {@code datamuse.url}, e.g. to a local stub.
+ * The requests share the pooled {@code outboundHttpClient}. The responses
+ * are cached per query for {@code datamuse.cache-ttl-minutes}, since the
+ * game words are few and played again and again.
+ * The query asks for at most {@value #MAX_WORDS} words, which bounds the
+ * response; it is parsed as a stream, reading only the words.
+ * Publishes the metrics {@code datamuse.requests} (latency histogram)
+ * and {@code cache.*} with {@code cache=datamuse}.
+ */
+@Component
+public class DatamuseClient implements RelatedWordsClient {
+
+    /**
+     * The maximum amount of words of a query.
+     */
+    private static final int MAX_QUERY_WORDS = 2;
+
+    /**
+     * The maximum amount of related words of a query.
+     */
+    static final int MAX_WORDS = 50;
+
+    /**
+     * Creates the parsers of the responses.
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * The maximum amount of cached responses.
+     */
+    private static final long MAX_CACHED_RESPONSES = 5_000;
+
+    /**
+     * Sends the requests, shared by all calls.
+     */
+    private final RestTemplate restTemplate;
+
+    /**
+     * The url of the API.
+     */
+    private final String url;
+
+    /**
+     * The related words of the queries.
+     */
+    private final Cache<String, List<String>> responses;
+
+    /**
+     * The latency of the requests.
+     */
+    private final Timer requests;
+
+    /**
+     * Constructs an instance of this class.
+     *
+     * @param restTemplateBuilder builder of the rest template
+     * @param outboundHttpClient  pooled client sending the requests
+     * @param meterRegistry       registry of the metrics
+     * @param url                 url of the API
+     * @param cacheTtlMinutes     time the responses are cached
+     */
+    @Autowired
+    public DatamuseClient(final RestTemplateBuilder restTemplateBuilder,
+                          final CloseableHttpClient outboundHttpClient,
+                          final MeterRegistry meterRegistry,
+                          @Value("${datamuse.url:https://api.datamuse.com}")
+                          final String url,
+                          @Value("${datamuse.cache-ttl-minutes:1440}")
+                          final long cacheTtlMinutes) {
+        this(restTemplateBuilder.requestFactory(() ->
+                        new HttpComponentsClientHttpRequestFactory(
+                                outboundHttpClient)).build(),
+                meterRegistry, url, Duration.ofMinutes(cacheTtlMinutes));
+    }
+
+    DatamuseClient(final RestTemplate restTemplate,
+                   final MeterRegistry meterRegistry,
+                   final String url,
+                   final Duration cacheTtl) {
+        this.restTemplate = restTemplate;
+        this.url = url;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_RESPONSES)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        this.requests = Timer.builder("datamuse.requests")
+                .description("Latency of the requests to the Datamuse API")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "datamuse");
+    }
+
+    /**
+     * Gets the words related to a word. Words consisting of more than
+     * two words are not queried.
+     *
+     * @param word the word.
+     * @return the related words, the most related first.
+     */
+    @Override
+    public List<String> getRelatedWords(final String word) {
+        String[] split = word.split(" ");
+        if (split.length > MAX_QUERY_WORDS) {
+            return Collections.emptyList();
+        }
+        return responses.get(String.join("+", split), this::query);
+    }
+
+    private List<String> query(final String query) {
+        return requests.record(() -> restTemplate.execute(
+                url + "/words?ml={ml}&max={max}", HttpMethod.GET, null,
+                DatamuseClient::readWords, query, MAX_WORDS));
+    }
+
+    /**
+     * Reads the words of a response, skipping the other fields.
+     *
+     * @param response the response, an array of objects with a word each.
+     * @return the words.
+     * @throws IOException if the response cannot be read.
+     */
+    static List<String> readWords(final ClientHttpResponse response)
+            throws IOException {
+        List<String> words = new ArrayList<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(response.getBody())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return Collections.emptyList();
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("word".equals(field)) {
+                        words.add(parser.getText());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableList(words);
+    }
+}
@@ -0,0 +1,165 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs all commands of a game on one thread.
+ * Games are spread over a fixed amount of single threaded stripes by their
+ * lobby id, so the commands of one game never run concurrently while
+ * the games of different stripes run in parallel.
+ * Each command holds the monitor of its game, which is only contended by
+ * {@code GameWriter} while it writes the game.
+ */
+@Component
+public class GameCommandExecutor {
+
+    /**
+     * Amount of stripes per available processor.
+     */
+    private static final int STRIPES_PER_PROCESSOR = 4;
+
+    private final Logger log = LoggerFactory.getLogger(GameCommandExecutor.class);
+
+    /**
+     * The stripes, each running the commands of its games in order.
+     */
+    private final ExecutorService[] stripes;
+
+    /**
+     * The stripe the current thread belongs to, if any.
+     */
+    private final ThreadLocal<ExecutorService> currentStripe = new ThreadLocal<>();
+
+    /**
+     * Constructs an instance of this class.
+     */
+    public GameCommandExecutor() {
+        this(Runtime.getRuntime().availableProcessors()
+                * STRIPES_PER_PROCESSOR);
+    }
+
+    GameCommandExecutor(final int stripeCount) {
+        this.stripes = new ExecutorService[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            final String name = "game-commands-" + (i + 1);
+            stripes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Runs a command of a game and waits for its result.
+     * Exceptions thrown by the command are rethrown to the caller.
+     * The waiting request thread must not hold a JDBC connection, since the
+     * command may need one of its own; with open-in-view this relies on
+     * {@code hibernate.connection.handling_mode} releasing the connection
+     * after each transaction, see {@code application.properties}.
+     *
+     * @param game    the game.
+     * @param command the command.
+     * @param <T>     the type of the result.
+     * @return the result of the command.
+     */
+    public <T> T call(final Game game, final Supplier<T> command) {
+        ExecutorService stripe = stripeOf(game);
+        if (currentStripe.get() == stripe) {
+            return runLocked(game, command);
+        }
+        Future<T> result = stripe.submit(() -> {
+            currentStripe.set(stripe);
+            return runLocked(game, command);
+        });
+        try {
+            return result.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Runs a command of a game and waits until it is done.
+     *
+     * @param game    the game.
+     * @param command the command.
+     */
+    public void run(final Game game, final Runnable command) {
+        call(game, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    /**
+     * Queues a command of a game without waiting for it.
+     *
+     * @param game    the game.
+     * @param command the command.
+     */
+    public void submit(final Game game, final Runnable command) {
+        ExecutorService stripe = stripeOf(game);
+        stripe.execute(() -> {
+            currentStripe.set(stripe);
+            try {
+                runLocked(game, () -> {
+                    command.run();
+                    return null;
+                });
+            } catch (RuntimeException ex) {
+                log.error(String.format(
+                        "Command of game %d failed:%s", game.getLobbyId(), ex));
+            }
+        });
+    }
+
+    private <T> T runLocked(final Game game, final Supplier<T> command) {
+        synchronized (game) {
+            return command.get();
+        }
+    }
+
+    private ExecutorService stripeOf(final Game game) {
+        return stripes[Math.floorMod(game.getLobbyId().hashCode(),
+                stripes.length)];
+    }
+
+    /**
+     * Gets the amount of stripes.
+     *
+     * @return the amount of single threaded stripes.
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Stops the stripes when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService stripe : stripes) {
+            stripe.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,476 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import ch.uzh.ifi.seal.soprafs20.exceptions.NotFoundException;
+import ch.uzh.ifi.seal.soprafs20.exceptions.UnauthorizedException;
+import ch.uzh.ifi.seal.soprafs20.rest.mapper.GameViewMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes the state of running games to the players, as server-sent events,
+ * over STOMP and to parked long-poll requests. A {@code game} event is sent
+ * whenever the view of a game changes and a {@code timer} event with the
+ * remaining seconds of the current state is sent every second. Both views of
+ * a game are serialized once per change and the same payload is sent to every
+ * subscribed connection.
+ */
+@Component
+public class GameEventPublisher {
+
+    /**
+     * Time after which a subscription ends and the client reconnects.
+     */
+    private static final long SUBSCRIPTION_TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+
+    /**
+     * Interval of the timer events.
+     */
+    private static final long TICK_MILLIS = 1000;
+
+    /**
+     * Header of the poll responses holding the version of the game.
+     */
+    public static final String VERSION_HEADER = "X-Game-Version";
+
+    private final Logger log = LoggerFactory.getLogger(GameEventPublisher.class);
+
+    /**
+     * The scheduler providing the deadlines of the games.
+     */
+    private final GameScheduler gameScheduler;
+
+    /**
+     * Sends the messages to the STOMP subscribers.
+     */
+    private final SimpMessageSendingOperations messaging;
+
+    /**
+     * The versions of the games.
+     */
+    private final VersionRegistry versionRegistry;
+
+    /**
+     * Sends the events and the timer ticks.
+     */
+    private final ScheduledExecutorService events;
+
+    /**
+     * Serializes the views, configured like the REST responses.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The subscribed players of each game, keyed by lobby id.
+     */
+    private final Map<Long, GameStream> streams = new ConcurrentHashMap<>();
+
+    /**
+     * The lobby id of each STOMP subscription.
+     */
+    private final Map<String, Long> stompSubscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an instance of this class.
+     *
+     * @param gameScheduler   scheduler for the game deadlines
+     * @param messaging       sender of the STOMP messages
+     * @param versionRegistry versions of the games
+     * @param objectMapper    serializer of the views
+     */
+    @Autowired
+    public GameEventPublisher(final GameScheduler gameScheduler,
+                              final SimpMessageSendingOperations messaging,
+                              final VersionRegistry versionRegistry,
+                              final ObjectMapper objectMapper) {
+        this(gameScheduler, messaging, versionRegistry, objectMapper, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-events");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        events.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    GameEventPublisher(final GameScheduler gameScheduler,
+                       final SimpMessageSendingOperations messaging,
+                       final VersionRegistry versionRegistry,
+                       final ObjectMapper objectMapper,
+                       final ScheduledExecutorService events) {
+        this.gameScheduler = gameScheduler;
+        this.messaging = messaging;
+        this.versionRegistry = versionRegistry;
+        this.objectMapper = objectMapper;
+        this.events = events;
+    }
+
+    /**
+     * Subscribes a player to the events of a game.
+     * The current view of the game is sent right away.
+     *
+     * @param game    the game.
+     * @param numBots the amount of bots in the lobby.
+     * @param token   the token of the player.
+     * @return the event stream of the player.
+     */
+    public SseEmitter subscribe(final Game game, final int numBots,
+                                final String token) {
+        if (!GameViewMapper.isPlayer(game, token)) {
+            throw new UnauthorizedException(
+                    "You are not allowed to access this game instance!");
+        }
+        GameStream stream = streams.computeIfAbsent(game.getLobbyId(),
+                lobbyId -> new GameStream(numBots));
+        Subscriber subscriber = new Subscriber(token,
+                new SseEmitter(SUBSCRIPTION_TIMEOUT));
+        Runnable unsubscribe = () -> stream.subscribers.remove(subscriber);
+        subscriber.emitter.onCompletion(unsubscribe);
+        subscriber.emitter.onTimeout(unsubscribe);
+        subscriber.emitter.onError(ex -> unsubscribe.run());
+        stream.subscribers.add(subscriber);
+
+        String view = serialize(GameViewMapper.toView(game, numBots, token));
+        events.execute(() -> send(subscriber, "game", view));
+        return subscriber.emitter;
+    }
+
+    /**
+     * Waits for the next change of a game. If the game has already moved
+     * past the given version, the current view is returned right away.
+     * Otherwise the request is parked without holding a thread until the
+     * game changes, or answered with {@code 304 Not Modified} once the
+     * wait time has passed.
+     * Has to be called on the thread of the game.
+     *
+     * @param game         the game.
+     * @param numBots      the amount of bots in the lobby.
+     * @param token        the token of the player.
+     * @param sinceVersion the version of the game known to the player.
+     * @param waitMs       the maximal time to wait in milliseconds.
+     * @return the pending response.
+     */
+    public DeferredResult<ResponseEntity<String>> poll(
+            final Game game, final int numBots, final String token,
+            final long sinceVersion, final long waitMs) {
+        if (!GameViewMapper.isPlayer(game, token)) {
+            throw new UnauthorizedException(
+                    "You are not allowed to access this game instance!");
+        }
+        Long lobbyId = game.getLobbyId();
+        long version = versionRegistry.getGameVersion(lobbyId);
+        ResponseEntity<String> notModified = ResponseEntity
+                .status(HttpStatus.NOT_MODIFIED)
+                .eTag(versionRegistry.getGameETag(lobbyId))
+                .header(VERSION_HEADER, Long.toString(version))
+                .build();
+        DeferredResult<ResponseEntity<String>> result =
+                new DeferredResult<>(Math.max(waitMs, 1), notModified);
+        if (version != sinceVersion) {
+            result.setResult(pollResponse(lobbyId,
+                    serialize(GameViewMapper.toView(game, numBots, token))));
+        } else if (waitMs <= 0) {
+            result.setResult(notModified);
+        } else {
+            GameStream stream = streams.computeIfAbsent(lobbyId,
+                    id -> new GameStream(numBots));
+            Waiter waiter = new Waiter(token, result);
+            stream.waiters.add(waiter);
+            result.onCompletion(() -> stream.waiters.remove(waiter));
+        }
+        return result;
+    }
+
+    /**
+     * Registers a STOMP subscription of a player to the game queue
+     * of a lobby. The subscription has to be authorized by the caller.
+     *
+     * @param lobbyId        the lobby id of the game.
+     * @param numBots        the amount of bots in the lobby.
+     * @param token          the token of the player.
+     * @param sessionId      the id of the STOMP session.
+     * @param subscriptionId the id of the subscription within the session.
+     */
+    public void subscribe(final Long lobbyId, final int numBots,
+                          final String token, final String sessionId,
+                          final String subscriptionId) {
+        String key = sessionId + ":" + subscriptionId;
+        streams.computeIfAbsent(lobbyId, id -> new GameStream(numBots))
+                .stompSubscribers.put(key, token);
+        stompSubscriptions.put(key, lobbyId);
+    }
+
+    /**
+     * Removes a STOMP subscription.
+     *
+     * @param event the unsubscribe event.
+     */
+    @EventListener
+    public void onUnsubscribe(final SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor =
+                SimpMessageHeaderAccessor.wrap(event.getMessage());
+        unsubscribe(accessor.getSessionId() + ":"
+                + accessor.getSubscriptionId());
+    }
+
+    /**
+     * Removes all STOMP subscriptions of a closed session.
+     *
+     * @param event the disconnect event.
+     */
+    @EventListener
+    public void onDisconnect(final SessionDisconnectEvent event) {
+        String prefix = event.getSessionId() + ":";
+        for (String key : stompSubscriptions.keySet()) {
+            if (key.startsWith(prefix)) {
+                unsubscribe(key);
+            }
+        }
+    }
+
+    private void unsubscribe(final String key) {
+        Long lobbyId = stompSubscriptions.remove(key);
+        if (lobbyId != null) {
+            GameStream stream = streams.get(lobbyId);
+            if (stream != null) {
+                stream.stompSubscribers.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Publishes the current state of a game to its subscribers
+     * and increases its version.
+     * Nothing is sent if neither view of the game changed.
+     * Has to be called on the thread of the game.
+     *
+     * @param game the game.
+     */
+    public void changed(final Game game) {
+        versionRegistry.gameChanged(game.getLobbyId());
+        GameStream stream = streams.get(game.getLobbyId());
+        if (stream == null || stream.isEmpty()) {
+            return;
+        }
+        String guesserView = serialize(
+                GameViewMapper.toGuesserView(game, stream.numBots));
+        String playerView = serialize(
+                GameViewMapper.toPlayerView(game, stream.numBots));
+        String guesserToken = game.getCurrentGuesser().getToken();
+        // parked polls wait for a new version, even if their view is the same
+        Waiter waiter;
+        while ((waiter = stream.waiters.poll()) != null) {
+            waiter.result.setResult(pollResponse(game.getLobbyId(),
+                    waiter.token.equals(guesserToken)
+                            ? guesserView : playerView));
+        }
+        if (guesserView.equals(stream.guesserView)
+                && playerView.equals(stream.playerView)) {
+            return;
+        }
+        stream.guesserView = guesserView;
+        stream.playerView = playerView;
+        String queue = "/queue/lobbies/" + game.getLobbyId() + "/game";
+        events.execute(() -> {
+            for (Subscriber subscriber : stream.subscribers) {
+                send(subscriber, "game",
+                        subscriber.token.equals(guesserToken)
+                                ? guesserView : playerView);
+            }
+            for (String token : new HashSet<>(stream.stompSubscribers.values())) {
+                messaging.convertAndSendToUser(token, queue,
+                        token.equals(guesserToken) ? guesserView : playerView);
+            }
+        });
+    }
+
+    /**
+     * Ends all subscriptions of a game that has ended.
+     *
+     * @param lobbyId the lobby id of the game.
+     */
+    public void close(final Long lobbyId) {
+        versionRegistry.gameChanged(lobbyId);
+        GameStream stream = streams.remove(lobbyId);
+        if (stream != null) {
+            stream.stompSubscribers.keySet().forEach(stompSubscriptions::remove);
+            stream.waiters.forEach(waiter -> waiter.result.setErrorResult(
+                    new NotFoundException("The game has ended!")));
+            events.execute(() -> stream.subscribers
+                    .forEach(subscriber -> subscriber.emitter.complete()));
+        }
+    }
+
+    /**
+     * Gets the amount of players subscribed to a game.
+     *
+     * @param lobbyId the lobby id of the game.
+     * @return the amount of subscribed players.
+     */
+    public int getSubscriberCount(final Long lobbyId) {
+        GameStream stream = streams.get(lobbyId);
+        return stream == null
+                ? 0
+                : stream.subscribers.size() + stream.stompSubscribers.size();
+    }
+
+    /**
+     * Sends the remaining seconds of the current state to all subscribers.
+     */
+    void tick() {
+        long now = System.currentTimeMillis();
+        streams.forEach((lobbyId, stream) -> {
+            Optional<Long> deadline = gameScheduler.getDeadline(lobbyId);
+            long remaining = deadline.isPresent()
+                    ? TimeUnit.MILLISECONDS.toSeconds(
+                            Math.max(deadline.get() - now, 0))
+                    : 0;
+            String seconds = Long.toString(remaining);
+            for (Subscriber subscriber : stream.subscribers) {
+                send(subscriber, "timer", seconds);
+            }
+            if (!stream.stompSubscribers.isEmpty()) {
+                messaging.convertAndSend(
+                        "/topic/lobbies/" + lobbyId + "/timer", seconds);
+            }
+        });
+    }
+
+    /**
+     * Sends an event to one subscriber.
+     * Subscribers that can not be reached are removed.
+     *
+     * @param subscriber the subscriber.
+     * @param name       the name of the event.
+     * @param data       the data of the event.
+     */
+    void send(final Subscriber subscriber, final String name,
+              final String data) {
+        try {
+            subscriber.emitter.send(SseEmitter.event()
+                    .name(name)
+                    .data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException ex) {
+            subscriber.emitter.completeWithError(ex);
+        }
+    }
+
+    private ResponseEntity<String> pollResponse(final Long lobbyId,
+                                                final String view) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(versionRegistry.getGameETag(lobbyId))
+                .header(VERSION_HEADER, Long.toString(
+                        versionRegistry.getGameVersion(lobbyId)))
+                .body(view);
+    }
+
+    private String serialize(final Object view) {
+        try {
+            return objectMapper.writeValueAsString(view);
+        } catch (JsonProcessingException ex) {
+            log.error(String.format("Could not serialize game view:%s", ex));
+            return "";
+        }
+    }
+
+    /**
+     * Stops sending events when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        events.shutdownNow();
+        streams.values().forEach(stream -> stream.subscribers
+                .forEach(subscriber -> subscriber.emitter.complete()));
+        streams.clear();
+    }
+
+    /**
+     * The subscribers of one game and the views last sent to them.
+     */
+    private static final class GameStream {
+
+        private final int numBots;
+
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+        private final Map<String, String> stompSubscribers = new ConcurrentHashMap<>();
+
+        private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+        private String guesserView;
+
+        private String playerView;
+
+        private GameStream(final int numBots) {
+            this.numBots = numBots;
+        }
+
+        private boolean isEmpty() {
+            return subscribers.isEmpty() && stompSubscribers.isEmpty()
+                    && waiters.isEmpty();
+        }
+    }
+
+    /**
+     * A subscribed player.
+     */
+    static final class Subscriber {
+
+        private final String token;
+
+        private final SseEmitter emitter;
+
+        private Subscriber(final String token, final SseEmitter emitter) {
+            this.token = token;
+            this.emitter = emitter;
+        }
+
+        String getToken() {
+            return token;
+        }
+    }
+
+    /**
+     * A parked poll request of a player.
+     */
+    private static final class Waiter {
+
+        private final String token;
+
+        private final DeferredResult<ResponseEntity<String>> result;
+
+        private Waiter(final String token,
+                       final DeferredResult<ResponseEntity<String>> result) {
+            this.token = token;
+            this.result = result;
+        }
+    }
+}
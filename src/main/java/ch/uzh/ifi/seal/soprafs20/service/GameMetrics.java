@@ -0,0 +1,257 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.GameState;
+import ch.uzh.ifi.seal.soprafs20.GameLogic.NLP;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the timings of the running games.
+ * <ul>
+ * <li>{@code game.state.duration}: how long each state lasted, tagged with
+ * the {@code state} and whether it ended by {@code timeout} or was
+ * {@code completed} early by the players</li>
+ * <li>{@code game.state.used}: the duration as a fraction of the
+ * maximal time of the state</li>
+ * <li>{@code game.deadline.lateness}: how late the deadlines fired</li>
+ * <li>{@code game.bots.clues} and {@code game.clues.validation}: the
+ * latency of generating the bot clues and checking the entered clues</li>
+ * <li>{@code game.live}, {@code game.scheduler.threads},
+ * {@code game.scheduler.active} and {@code game.scheduler.pending}:
+ * the running games and the load of the {@code GameScheduler}</li>
+ * <li>{@code cache.gets} and the other cache meters of the clue checks,
+ * tagged with {@code cache} {@code nlp.results} and {@code nlp.stems}</li>
+ * </ul>
+ * Exposed at {@code /actuator/prometheus}.
+ */
+@Component
+public class GameMetrics {
+
+    /**
+     * Tag of a state that ended when its deadline fired.
+     */
+    static final String TIMEOUT = "timeout";
+
+    /**
+     * Tag of a state that the players completed before its deadline.
+     */
+    static final String COMPLETED = "completed";
+
+    /**
+     * The registry of the meters.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * The current state of each running game, keyed by lobby id.
+     */
+    private final Map<Long, Phase> phases = new ConcurrentHashMap<>();
+
+    /**
+     * The meters of the states.
+     */
+    private final Map<GameState, StateMeters> states =
+            new EnumMap<>(GameState.class);
+
+    /**
+     * How late the deadlines fired.
+     */
+    private final Timer deadlineLateness;
+
+    /**
+     * The latency of generating the bot clues.
+     */
+    private final Timer botClues;
+
+    /**
+     * The latency of checking the entered clues.
+     */
+    private final Timer clueValidation;
+
+    /**
+     * Constructs an instance of this class.
+     *
+     * @param meterRegistry registry of the metrics
+     * @param liveGameStore store of the running games
+     * @param gameScheduler scheduler for the game deadlines
+     */
+    @Autowired
+    public GameMetrics(final MeterRegistry meterRegistry,
+                       final LiveGameStore liveGameStore,
+                       final GameScheduler gameScheduler) {
+        this.meterRegistry = meterRegistry;
+        for (GameState state : GameState.values()) {
+            states.put(state, new StateMeters(state));
+        }
+        this.deadlineLateness = Timer.builder("game.deadline.lateness")
+                .description("Time between the deadline of a state "
+                        + "and its timer firing")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.botClues = Timer.builder("game.bots.clues")
+                .description("Latency of generating the clues of the bots")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.clueValidation = Timer.builder("game.clues.validation")
+                .description("Latency of checking the entered clues")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("game.live", liveGameStore, LiveGameStore::size)
+                .description("Running games")
+                .register(meterRegistry);
+        Gauge.builder("game.scheduler.threads", gameScheduler,
+                        GameScheduler::getPoolSize)
+                .description("Threads of the game scheduler")
+                .register(meterRegistry);
+        Gauge.builder("game.scheduler.active", gameScheduler,
+                        GameScheduler::getActiveThreads)
+                .description("Threads of the game scheduler running a deadline")
+                .register(meterRegistry);
+        Gauge.builder("game.scheduler.pending", gameScheduler,
+                        GameScheduler::getPendingDeadlines)
+                .description("Games waiting for a deadline")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records that a game entered a state, which ends its previous state.
+     * The previous state timed out if it ended at or after its deadline.
+     *
+     * @param lobbyId        the lobby id of the game.
+     * @param state          the state the game entered.
+     * @param startMillis    the start of the state as epoch milliseconds.
+     * @param deadlineMillis the deadline of the state as epoch milliseconds.
+     */
+    public void stateEntered(final Long lobbyId, final GameState state,
+                             final long startMillis,
+                             final long deadlineMillis) {
+        Phase previous = phases.put(lobbyId,
+                new Phase(state, startMillis, deadlineMillis));
+        if (previous != null) {
+            previous.end(startMillis);
+        }
+    }
+
+    /**
+     * Records the end of the last state of a game.
+     *
+     * @param lobbyId the lobby id of the game.
+     */
+    public void gameEnded(final Long lobbyId) {
+        Phase last = phases.remove(lobbyId);
+        if (last != null) {
+            last.end(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Records a deadline that fired.
+     *
+     * @param deadlineMillis the deadline as epoch milliseconds.
+     * @param firedMillis    the time it fired as epoch milliseconds.
+     */
+    public void deadlineFired(final long deadlineMillis,
+                              final long firedMillis) {
+        deadlineLateness.record(Math.max(firedMillis - deadlineMillis, 0),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records the generation of the clues of the bots.
+     *
+     * @param nanos the time it took in nanoseconds.
+     */
+    public void botCluesGenerated(final long nanos) {
+        botClues.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the check of the entered clues.
+     *
+     * @param nanos the time it took in nanoseconds.
+     */
+    public void cluesValidated(final long nanos) {
+        clueValidation.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Publishes the hit rates of the caches of the clue checks.
+     *
+     * @param nlp the clue checks.
+     */
+    public void monitorClueChecks(final NLP nlp) {
+        nlp.bindTo(meterRegistry);
+    }
+
+    /**
+     * The meters of one state.
+     */
+    private final class StateMeters {
+
+        private final Timer timeouts;
+
+        private final Timer completions;
+
+        private final DistributionSummary used;
+
+        private StateMeters(final GameState state) {
+            this.timeouts = stateTimer(state, TIMEOUT);
+            this.completions = stateTimer(state, COMPLETED);
+            this.used = DistributionSummary.builder("game.state.used")
+                    .description("Duration of a state as a fraction "
+                            + "of its maximal time")
+                    .tag("state", state.name())
+                    .register(meterRegistry);
+        }
+
+        private Timer stateTimer(final GameState state, final String outcome) {
+            return Timer.builder("game.state.duration")
+                    .description("Duration of a state")
+                    .tag("state", state.name())
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * The state a game is in and its deadline.
+     */
+    private final class Phase {
+
+        private final GameState state;
+
+        private final long startMillis;
+
+        private final long deadlineMillis;
+
+        private Phase(final GameState state, final long startMillis,
+                      final long deadlineMillis) {
+            this.state = state;
+            this.startMillis = startMillis;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        private void end(final long endMillis) {
+            StateMeters meters = states.get(state);
+            long duration = Math.max(endMillis - startMillis, 0);
+            Timer timer = endMillis >= deadlineMillis
+                    ? meters.timeouts
+                    : meters.completions;
+            timer.record(duration, TimeUnit.MILLISECONDS);
+            long maxMillis = deadlineMillis - startMillis;
+            if (maxMillis > 0) {
+                meters.used.record((double) duration / maxMillis);
+            }
+        }
+    }
+}
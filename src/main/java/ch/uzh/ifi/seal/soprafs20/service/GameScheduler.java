@@ -0,0 +1,185 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Application-wide scheduler for game deadlines.
+ * All running games share one small thread pool. Every game holds at most
+ * one pending deadline which fires once when its current state expires.
+ */
+@Component
+public class GameScheduler {
+
+    /**
+     * Number of threads shared by all games.
+     */
+    private static final int POOL_SIZE = 2;
+
+    private final Logger log = LoggerFactory.getLogger(GameScheduler.class);
+
+    /**
+     * The executor running the deadlines of all games.
+     */
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * The pending deadline of each game, keyed by lobby id.
+     */
+    private final Map<Long, Deadline> deadlines = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an instance of this class.
+     */
+    public GameScheduler() {
+        this.executor = new ScheduledThreadPoolExecutor(
+                POOL_SIZE, new GameThreadFactory());
+        this.executor.setRemoveOnCancelPolicy(true);
+        this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Registers the deadline of a game. A previously registered deadline
+     * of the same game is cancelled.
+     *
+     * @param lobbyId        the lobby id of the game.
+     * @param deadlineMillis the deadline as epoch milliseconds.
+     * @param task           the task to run when the deadline is reached.
+     */
+    public void schedule(final Long lobbyId, final long deadlineMillis,
+                         final Runnable task) {
+        final Deadline deadline = new Deadline(deadlineMillis);
+        Runnable once = () -> {
+            synchronized (deadlines) {
+                deadlines.remove(lobbyId, deadline);
+            }
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                log.error(String.format(
+                        "Deadline of game %d failed:%s", lobbyId, ex));
+            }
+        };
+        long delay = Math.max(deadlineMillis - System.currentTimeMillis(), 0);
+        synchronized (deadlines) {
+            deadline.future = executor.schedule(once, delay,
+                    TimeUnit.MILLISECONDS);
+            Deadline previous = deadlines.put(lobbyId, deadline);
+            if (previous != null) {
+                previous.future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Cancels the pending deadline of a game.
+     *
+     * @param lobbyId the lobby id of the game.
+     */
+    public void cancel(final Long lobbyId) {
+        Deadline deadline = deadlines.remove(lobbyId);
+        if (deadline != null) {
+            deadline.future.cancel(false);
+        }
+    }
+
+    /**
+     * Gets whether a game has a pending deadline.
+     *
+     * @param lobbyId the lobby id of the game.
+     * @return whether a deadline is registered.
+     */
+    public boolean isScheduled(final Long lobbyId) {
+        return deadlines.containsKey(lobbyId);
+    }
+
+    /**
+     * Gets the pending deadline of a game.
+     *
+     * @param lobbyId the lobby id of the game.
+     * @return the deadline as epoch milliseconds, if one is registered.
+     */
+    public Optional<Long> getDeadline(final Long lobbyId) {
+        Deadline deadline = deadlines.get(lobbyId);
+        return deadline == null
+                ? Optional.empty()
+                : Optional.of(deadline.epochMillis);
+    }
+
+    /**
+     * Gets the amount of pending deadlines.
+     *
+     * @return the amount of games waiting for a deadline.
+     */
+    public int getPendingDeadlines() {
+        return deadlines.size();
+    }
+
+    /**
+     * Gets the amount of threads of the scheduler.
+     *
+     * @return the current pool size.
+     */
+    public int getPoolSize() {
+        return executor.getPoolSize();
+    }
+
+    /**
+     * Gets the amount of threads running a deadline.
+     *
+     * @return the approximate amount of active threads.
+     */
+    public int getActiveThreads() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Stops the scheduler when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        deadlines.clear();
+    }
+
+    /**
+     * A registered deadline of a game.
+     */
+    private static final class Deadline {
+
+        private final long epochMillis;
+
+        private ScheduledFuture<?> future;
+
+        private Deadline(final long epochMillis) {
+            this.epochMillis = epochMillis;
+        }
+    }
+
+    /**
+     * Creates the daemon threads of the scheduler.
+     */
+    private static final class GameThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(runnable,
+                    "game-scheduler-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,12 +1,9 @@
 package ch.uzh.ifi.seal.soprafs20.service;
 
-import ch.uzh.ifi.seal.soprafs20.GameLogic.APIResponse;
 import ch.uzh.ifi.seal.soprafs20.GameLogic.NLP;
-import ch.uzh.ifi.seal.soprafs20.GameLogic.WordReader;
 import ch.uzh.ifi.seal.soprafs20.GameLogic.GameState;
 import ch.uzh.ifi.seal.soprafs20.entity.Clue;
 import ch.uzh.ifi.seal.soprafs20.entity.Game;
-import ch.uzh.ifi.seal.soprafs20.entity.InternalTimer;
 import ch.uzh.ifi.seal.soprafs20.entity.Lobby;
 import ch.uzh.ifi.seal.soprafs20.entity.LobbyScore;
 import ch.uzh.ifi.seal.soprafs20.entity.Player;
@@ -14,7 +11,6 @@ import ch.uzh.ifi.seal.soprafs20.entity.User;
 import ch.uzh.ifi.seal.soprafs20.exceptions.ConflictException;
 import ch.uzh.ifi.seal.soprafs20.exceptions.NotFoundException;
 import ch.uzh.ifi.seal.soprafs20.exceptions.UnauthorizedException;
-import ch.uzh.ifi.seal.soprafs20.repository.ClueRepository;
 import ch.uzh.ifi.seal.soprafs20.repository.GameRepository;
 import ch.uzh.ifi.seal.soprafs20.repository.LobbyRepository;
 import ch.uzh.ifi.seal.soprafs20.repository.LobbyScoreRepository;
@@ -24,23 +20,27 @@ import ch.uzh.ifi.seal.soprafs20.rest.dto.CluePutDTO;
 import ch.uzh.ifi.seal.soprafs20.rest.dto.GamePostDTO;
 import ch.uzh.ifi.seal.soprafs20.rest.dto.MessagePutDTO;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PostConstruct;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
-import java.util.TimerTask;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Handles the game logic.
@@ -49,6 +49,8 @@ import java.util.concurrent.TimeUnit;
 @Transactional
 public class GameService {
 
+    private final Logger log = LoggerFactory.getLogger(GameService.class);
+
     /**
      * The game repository.
      */
@@ -64,11 +66,6 @@ public class GameService {
      */
     private final UserRepository userRepository;
 
-    /**
-     * The clue repository.
-     */
-    private final ClueRepository clueRepository;
-
     /**
      * The lobby score repository.
      */
@@ -79,6 +76,56 @@ public class GameService {
      */
     private final PlayerRepository playerRepository;
 
+    /**
+     * The scheduler for the deadlines of all games.
+     */
+    private final GameScheduler gameScheduler;
+
+    /**
+     * The running games.
+     */
+    private final LiveGameStore liveGameStore;
+
+    /**
+     * Writes the running games behind to the database.
+     */
+    private final GameWriter gameWriter;
+
+    /**
+     * Runs the commands of each game on one thread.
+     */
+    private final GameCommandExecutor gameCommandExecutor;
+
+    /**
+     * Pushes the changes of the games to the players.
+     */
+    private final GameEventPublisher gameEventPublisher;
+
+    /**
+     * Pushes the changes of the lobbies to the players.
+     */
+    private final LobbyEventPublisher lobbyEventPublisher;
+
+    /**
+     * The deadlines of the running games.
+     */
+    private final GameTimers gameTimers;
+
+    /**
+     * The clue candidates of the bots.
+     */
+    private final BotClueCandidates botClueCandidates;
+
+    /**
+     * Draws the words of the games.
+     */
+    private final WordSampler wordSampler;
+
+    /**
+     * The timings of the games.
+     */
+    private final GameMetrics gameMetrics;
+
     /**
      * Time to pick a word.
      */
@@ -109,11 +156,6 @@ public class GameService {
      */
     private static final int END_TIME = 10;
 
-    /**
-     * The timer schedule period.
-     */
-    private static final int SCHEDULE_PERIOD = 1000;
-
     /**
      * Amount of players for special game rules.
      */
@@ -127,7 +169,7 @@ public class GameService {
     /**
      * Amount of random words that are picked.
      */
-    private static final int RAND_WORDS = 13;
+    private static final int RAND_WORDS = WordPacks.WORDS_PER_GAME;
 
     /**
      * A random number.
@@ -135,7 +177,7 @@ public class GameService {
     private static final Random RAND = new Random();
 
     /**
-     * Responsible for checking validity of clues.
+     * Responsible for checking validity of clues, thread-safe.
      */
     private static final NLP NLP = new NLP();
 
@@ -146,36 +188,113 @@ public class GameService {
      * @param lobbyRepository      repository of stored lobbies
      * @param userRepository       repository of stored users
      * @param lobbyScoreRepository repository of stored lobby scores
-     * @param clueRepository       repository of stored clues
      * @param playerRepository     repository of stored players
+     * @param gameScheduler        scheduler for the game deadlines
+     * @param liveGameStore        store of the running games
+     * @param gameWriter           writer of the running games
+     * @param gameCommandExecutor  executor of the game commands
+     * @param gameEventPublisher   publisher of the game events
+     * @param lobbyEventPublisher  publisher of the lobby events
+     * @param gameTimers           deadlines of the running games
+     * @param botClueCandidates    clue candidates of the bots
+     * @param wordSampler          sampler of the words of the games
+     * @param gameMetrics          timings of the games
      */
     @Autowired
     public GameService(final GameRepository gameRepository,
                        final LobbyRepository lobbyRepository,
                        final UserRepository userRepository,
                        final LobbyScoreRepository lobbyScoreRepository,
-                       final ClueRepository clueRepository,
-                       final PlayerRepository playerRepository) {
+                       final PlayerRepository playerRepository,
+                       final GameScheduler gameScheduler,
+                       final LiveGameStore liveGameStore,
+                       final GameWriter gameWriter,
+                       final GameCommandExecutor gameCommandExecutor,
+                       final GameEventPublisher gameEventPublisher,
+                       final LobbyEventPublisher lobbyEventPublisher,
+                       final GameTimers gameTimers,
+                       final BotClueCandidates botClueCandidates,
+                       final WordSampler wordSampler,
+                       final GameMetrics gameMetrics) {
         this.gameRepository = gameRepository;
         this.lobbyRepository = lobbyRepository;
         this.userRepository = userRepository;
-        this.clueRepository = clueRepository;
         this.lobbyScoreRepository = lobbyScoreRepository;
         this.playerRepository = playerRepository;
+        this.gameScheduler = gameScheduler;
+        this.liveGameStore = liveGameStore;
+        this.gameWriter = gameWriter;
+        this.gameCommandExecutor = gameCommandExecutor;
+        this.gameEventPublisher = gameEventPublisher;
+        this.lobbyEventPublisher = lobbyEventPublisher;
+        this.gameTimers = gameTimers;
+        this.botClueCandidates = botClueCandidates;
+        this.wordSampler = wordSampler;
+        this.gameMetrics = gameMetrics;
     }
 
     /**
-     * Gets the game by id.
+     * Publishes the hit rates of the cached clue checks.
+     */
+    @PostConstruct
+    public void monitorClueChecks() {
+        gameMetrics.monitorClueChecks(NLP);
+    }
+
+    /**
+     * Loads the games that were running when the application stopped
+     * into the {@code LiveGameStore} and registers their deadlines again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverGames() {
+        for (Game game : gameRepository.findAll()) {
+            timer(putLive(game));
+        }
+    }
+
+    /**
+     * Gets the game by id. Running games are served
+     * from the {@code LiveGameStore}.
      *
      * @param id the id of the game.
      * @return the game by id.
      */
     public Game getGame(final Long id) {
+        Optional<Game> liveGame = liveGameStore.get(id);
+        if (liveGame.isPresent()) {
+            return liveGame.get();
+        }
         Optional<Game> optionalGame = gameRepository.findById(id);
         if (!optionalGame.isPresent()) {
             throw new NotFoundException("Could not find game!");
         }
-        return optionalGame.get();
+        Game game = optionalGame.get();
+        // an ended game is only read until it is deleted, never run again
+        if (liveGameStore.isEnding(id)
+                || GameState.END_GAME_STATE.equals(game.getGameState())) {
+            return game;
+        }
+        return putLive(game);
+    }
+
+    /**
+     * Adds a game to the {@code LiveGameStore} and
+     * tracks its deadlines in the {@code GameTimers}.
+     * The clues are loaded first, as the running games are used outside
+     * of the session they were loaded in.
+     *
+     * @param game the game.
+     * @return the instance held by the store.
+     */
+    private Game putLive(final Game game) {
+        Hibernate.initialize(game.getEnteredClues());
+        Hibernate.initialize(game.getInvalidClues());
+        for (Player player : game.getPlayers()) {
+            Hibernate.initialize(player.getClues());
+        }
+        Game liveGame = liveGameStore.put(game);
+        gameTimers.track(liveGame);
+        return liveGame;
     }
 
     /**
@@ -241,17 +360,33 @@ public class GameService {
 
         // set round count to 1
         newGame.setRoundsPlayed(1);
-        setStartTime(TimeUnit.MILLISECONDS.toSeconds(
-                System.currentTimeMillis()),
-                newGame);
+        newGame.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(
+                System.currentTimeMillis()));
 
-        // select random words from words.txt
-        WordReader reader = new WordReader();
-        newGame.setWords(reader.getRandomWords(RAND_WORDS));
+        // draw words of the word pack the lobby has not seen yet
+        newGame.setWordPack(lobby.getWordPack());
+        newGame.setWordIndices(wordSampler.drawIndices(lobby, RAND_WORDS));
+        warmUpClueChecks(wordSampler.getWords(newGame.getWordPack(),
+                newGame.getWordIndices()));
 
         newGame = gameRepository.save(newGame);
         gameRepository.flush();
-        return newGame;
+        // a game of the lobby that is still in the store has ended
+        Game liveGame = liveGameStore.replace(newGame);
+        gameTimers.track(liveGame);
+        return liveGame;
+    }
+
+    /**
+     * Checks the known bot clue candidates of the words of a new game,
+     * so that the checks during the game are answered from the cache.
+     *
+     * @param words the words of the game.
+     */
+    private void warmUpClueChecks(final List<String> words) {
+        for (String word : words) {
+            NLP.warmUp(word, botClueCandidates.getCached(word));
+        }
     }
 
     /**
@@ -262,13 +397,14 @@ public class GameService {
      * @param cluePutDTO the clue to be sent.
      * @return whether the clue was successfully sent.
      */
-    public boolean sendClue(final Game game, final Player player,
+    public boolean sendClue(final Game game, final Player sender,
                             final CluePutDTO cluePutDTO) {
         // check if game is in a valid state to accept clues
         if (!game.getGameState().equals(GameState.ENTER_CLUES_STATE)) {
             throw new UnauthorizedException(
                     "Clues are not accepted in current state!");
         }
+        Player player = playerInGame(game, sender);
         if (!game.getPlayers().contains(player)
                 || player.isClueIsSent()
                 || game.getCurrentGuesser().equals(player)
@@ -291,8 +427,6 @@ public class GameService {
             player.setClueIsSent(true);
             // if the same clue is sent twice, it is removed once
             addClue(clue, game);
-            clueRepository.saveAndFlush(clue);
-            gameRepository.saveAndFlush(game);
         } else {
             sendClueSpecial(game, player, cluePutDTO);
         }
@@ -305,9 +439,9 @@ public class GameService {
         if (allSent(game, sentClue)) {
             generateCluesForBots(game);
             checkClues(game);
-            gameRepository.saveAndFlush(game);
             return true;
         }
+        gameEventPublisher.changed(game);
         return false;
     }
 
@@ -343,9 +477,9 @@ public class GameService {
             throw new UnauthorizedException(
                     "This player is not allowed to pick a word!");
         }
-        game.setCurrentWord(chooseWordAtRandom(game.getWords()));
+        game.setCurrentWord(chooseNextWord(game));
+        botClueCandidates.prefetch(game.getLobbyId(), game.getCurrentWord());
         game.setGameState(GameState.ENTER_CLUES_STATE);
-        gameRepository.saveAndFlush(game);
         return true;
     }
 
@@ -356,7 +490,8 @@ public class GameService {
      * @param game the game.
      */
     public void pickWord(final Game game) {
-        game.setCurrentWord(chooseWordAtRandom(game.getWords()));
+        game.setCurrentWord(chooseNextWord(game));
+        botClueCandidates.prefetch(game.getLobbyId(), game.getCurrentWord());
     }
 
 
@@ -395,10 +530,6 @@ public class GameService {
         addClue(firstClue, game);
         addClue(secondClue, game);
         player.setClueIsSent(true);
-
-        gameRepository.saveAndFlush(game);
-        clueRepository.saveAndFlush(firstClue);
-        clueRepository.saveAndFlush(secondClue);
     }
 
     /**
@@ -431,7 +562,6 @@ public class GameService {
                 .equalsIgnoreCase(game.getCurrentWord()));
         game.setCurrentGuess(messagePutDTO.getMessage());
         guesserScore(game, time);
-        gameRepository.saveAndFlush(game);
     }
 
     private void guesserScore(final Game game, final long time) {
@@ -491,9 +621,9 @@ public class GameService {
         game.getCurrentGuesser().setGuessIsSent(false);
         game.getEnteredClues().clear();
         game.getInvalidClues().clear();
+        game.clearVotes();
         game.setGuessCorrect(false);
         game.setCurrentGuess("");
-        gameRepository.saveAndFlush(game);
     }
 
     /**
@@ -502,17 +632,18 @@ public class GameService {
      * @param game the game.
      */
     public void checkClues(final Game game) {
+        long start = System.nanoTime();
         List<Clue> invalidClues = new ArrayList<>();
+        NLP.Word currentWord = NLP.prepare(game.getCurrentWord());
         for (Clue clue : game.getEnteredClues()) {
-            if (!NLP.checkClue(clue.getActualClue(),
-                    game.getCurrentWord())) {
+            if (!NLP.checkClue(clue.getActualClue(), currentWord)) {
                 clue.setPlayerId(-1L);
                 invalidClues.add(clue);
             }
         }
         game.getEnteredClues().removeAll(invalidClues);
         game.addInvalidClues(invalidClues);
-        gameRepository.saveAndFlush(game);
+        gameMetrics.cluesValidated(System.nanoTime() - start);
     }
 
     /**
@@ -527,28 +658,42 @@ public class GameService {
     }
 
     /**
-     * Sets the start time.
+     * Moves the game into a new state, starts its time
+     * and registers the deadline of the new state.
+     * A pending deadline of the previous state is replaced,
+     * which is how player input completes a state early.
+     * The game is written behind to the database with the next batch
+     * and published with the deadline of the new state.
      *
-     * @param time the start time.
-     * @param game the game.
+     * @param game  the game.
+     * @param state the state the game enters.
      */
-    public void setStartTime(final long time, final Game game) {
-        game.setStartTimeSeconds(time);
-        gameRepository.saveAndFlush(game);
+    public void enterState(final Game game, final GameState state) {
+        long now = System.currentTimeMillis();
+        game.setGameState(state);
+        game.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(now));
+        if (state.equals(GameState.VOTE_ON_CLUES_STATE)) {
+            game.openVotes();
+        }
+        scheduleDeadline(game, now + TimeUnit.SECONDS.toMillis(
+                getMaxTime(game)));
+        gameWriter.persist(game);
+        gameEventPublisher.changed(game);
     }
 
 
     /**
-     * Gets a word at random.
+     * Takes the next word of a game. The words are drawn in random order,
+     * so the last remaining one is taken.
      *
-     * @param words the list of words.
-     * @return random word from the list.
+     * @param game the game.
+     * @return the next word.
      */
-    public String chooseWordAtRandom(final List<String> words) {
-        String currentWord = words.get(
-                RAND.nextInt(words.size()));
-        words.remove(currentWord);
-        return currentWord;
+    public String chooseNextWord(final Game game) {
+        int[] indices = game.getWordIndices();
+        int last = indices.length - 1;
+        game.setWordIndices(Arrays.copyOf(indices, last));
+        return wordSampler.getWord(game.getWordPack(), indices[last]);
     }
 
     /**
@@ -629,161 +774,171 @@ public class GameService {
     }
 
     /**
-     * Central timer logic for each game. Sets timer for each state.
-     * If state is complete before the timer ends,
-     * the game transitions into the next state with a new timer.
-     * Timer also takes care of all the logic set up
+     * Central timer logic for each game. Registers the deadline
+     * of the current state with the shared {@code GameScheduler},
+     * counted from the start time of the state.
+     * If state is complete before the deadline is reached,
+     * {@link #enterState(Game, GameState)} replaces the deadline.
+     * The deadline also takes care of all the logic set up
      * for the next state if no user input was entered
      *
-     * @param g the game instance.
+     * @param game the game instance.
      */
-    public void timer(final Game g) {
-        final Game[] game = {g};
-        TimerTask timerTask = new TimerTask() {
-            @Override
-            public void run() {
-                game[0] = getUpdatedGame(game[0]);
-                game[0].setTime(
-                        TimeUnit.MILLISECONDS.toSeconds(
-                                System.currentTimeMillis())
-                                - game[0].getStartTimeSeconds());
-
-                // PickwordState
-                if (game[0].getTime() >= PICK_WORD_TIME
-                        && game[0].getRoundsPlayed() <= game[0].getRounds()
-                        && !getCancel(game[0])
-                        && game[0].getGameState().equals(
-                                GameState.PICK_WORD_STATE)) {
-                    game[0].getTimer().cancel();
-                    game[0].getTimer().purge();
-                    pickWord(game[0]);
-
-                    game[0].setGameState(getNextState(game[0]));
-                    game[0].setStartTimeSeconds(
-                            TimeUnit.MILLISECONDS.toSeconds(
-                                    System.currentTimeMillis()));
-
-                    gameRepository.saveAndFlush(game[0]);
-                } else if (game[0].getTime() >= ENTER_CLUES_TIME
-                        && game[0].getRoundsPlayed() <= game[0].getRounds()
-                        && !getCancel(game[0])
-                        && game[0].getGameState().equals(
-                                GameState.ENTER_CLUES_STATE)) {
-
-                    // EnterCluesState
-                    game[0].getTimer().cancel();
-                    game[0].getTimer().purge();
-                    sendClue(game[0]);
-                    game[0].setGameState(getNextState(game[0]));
-                    game[0].setStartTimeSeconds(
-                            TimeUnit.MILLISECONDS.toSeconds(
-                                    System.currentTimeMillis()));
-                    gameRepository.saveAndFlush(game[0]);
-                } else if (game[0].getTime() >= VOTE_TIME
-                        && game[0].getRoundsPlayed() <= game[0].getRounds()
-                        && !getCancel(game[0])
-                        && game[0].getGameState().equals(
-                                GameState.VOTE_ON_CLUES_STATE)) {
-
-                    // VoteState
-                    game[0].getTimer().cancel();
-                    game[0].getTimer().purge();
-                    vote(game[0]);
-                    game[0].setGameState(getNextState(game[0]));
-                    game[0].setStartTimeSeconds(
-                            TimeUnit.MILLISECONDS.toSeconds(
-                                    System.currentTimeMillis()));
-                    gameRepository.saveAndFlush(game[0]);
-                } else if (game[0].getTime() >= GUESS_TIME
-                        && game[0].getRoundsPlayed() <= game[0].getRounds()
-                        && !getCancel(game[0])
-                        && game[0].getGameState()
-                        .equals(GameState.ENTER_GUESS_STATE)) {
-
-                    // GuessState
-                    game[0].getTimer().cancel();
-                    game[0].getTimer().purge();
-                    game[0].setGuessCorrect(false);
-                    game[0].setGameState(getNextState(game[0]));
-                    updateScores(game[0]);
-                    guesserScore(game[0], GUESS_TIME);
-
-                    game[0].setStartTimeSeconds(
-                            TimeUnit.MILLISECONDS.toSeconds(
-                                    System.currentTimeMillis()));
-                    gameRepository.saveAndFlush(game[0]);
-                } else if (game[0].getTime() >= TRANSITION_TIME
-                        && game[0].getRoundsPlayed() <= game[0].getRounds()
-                        && !getCancel(game[0])
-                        && game[0].getGameState().equals(
-                                GameState.TRANSITION_STATE)) {
-
-                    // TransitionState
-                    game[0].getTimer().cancel();
-                    game[0].getTimer().purge();
-                    startNewRound(game[0]);
-                    if (game[0].getRoundsPlayed() > game[0].getRounds()) {
-                        game[0].setGameState(GameState.END_GAME_STATE);
-                        game[0].setRoundsPlayed(game[0].getRounds());
-                    } else {
-                        game[0].setGameState(getNextState(game[0]));
-                    }
-                    game[0].setStartTimeSeconds(
-                            TimeUnit.MILLISECONDS.toSeconds(
-                                    System.currentTimeMillis()));
-                    gameRepository.saveAndFlush(game[0]);
-                } else if (game[0].getTime() >= END_TIME
-                        && !getCancel(game[0])
-                        && game[0].getGameState().equals(
-                                GameState.END_GAME_STATE)) {
-
-                    // EndGameState
-                    game[0].getTimer().cancel();
-                    game[0].getTimer().purge();
-                    g.getTimer().cancel();
-                    g.getTimer().purge();
-
-                    updateUserDatabase(game[0]);
-                    Lobby currentLobby = getUpdatedLobby(game[0].getLobbyId());
-                    currentLobby.setGameIsStarted(false);
-                    lobbyRepository.saveAndFlush(currentLobby);
-
-                    LobbyScore lobbyScore = new LobbyScore();
-                    lobbyScore.setLobbyName(game[0].getLobbyName());
-                    lobbyScore.setScore(game[0].getOverallScore());
-                    lobbyScore.setPlayersIdInLobby(game[0].getPlayers());
-                    lobbyScore.setDate(new Date());
-                    lobbyScoreRepository.saveAndFlush(lobbyScore);
-
-                    for (Player p : game[0].getPlayers()) {
-                        p.setScore(0);
-                    }
-                    playerRepository.saveAll(game[0].getPlayers());
-
-                    game[0].setPlayers(null);
-                    game[0].setCurrentGuesser(null);
-                    gameRepository.saveAndFlush(game[0]);
-                    gameRepository.delete(game[0]);
-                    gameRepository.flush();
-                } else if (getCancel(game[0])
-                        && game[0].getRoundsPlayed() <= game[0].getRounds()
-                        && !game[0].getGameState().equals(
-                                GameState.END_GAME_STATE)) {
-
-                    // Player input cancels timer
-                    game[0].getTimer().cancel();
-                    game[0] = getUpdatedGame(game[0]);
-                    game[0].setStartTimeSeconds(
-                            TimeUnit.MILLISECONDS.toSeconds(
-                                    System.currentTimeMillis()));
-                    game[0].getTimer().setCancel(false);
-                    gameRepository.saveAndFlush(game[0]);
+    public void timer(final Game game) {
+        scheduleDeadline(game, TimeUnit.SECONDS.toMillis(
+                game.getStartTimeSeconds() + getMaxTime(game)));
+    }
+
+    /**
+     * Registers the deadline of the current state of a game and
+     * sets it on the game and in the {@code GameTimers}.
+     *
+     * @param game           the game instance.
+     * @param deadlineMillis the deadline as epoch milliseconds.
+     */
+    private void scheduleDeadline(final Game game, final long deadlineMillis) {
+        game.setDeadline(deadlineMillis);
+        gameMetrics.stateEntered(game.getLobbyId(), game.getGameState(),
+                deadlineMillis - TimeUnit.SECONDS.toMillis(getMaxTime(game)),
+                deadlineMillis);
+        gameTimers.setDeadline(game.getLobbyId(), deadlineMillis,
+                game.getGameState().equals(GameState.END_GAME_STATE));
+        if (game.getRoundsPlayed() > game.getRounds()
+                && !game.getGameState().equals(GameState.END_GAME_STATE)) {
+            return;
+        }
+        final GameState state = game.getGameState();
+        final int round = game.getRoundsPlayed();
+        gameScheduler.schedule(game.getLobbyId(), deadlineMillis,
+                () -> onDeadline(game, state, round, deadlineMillis));
+    }
+
+    /**
+     * Runs the logic of a state whose deadline has been reached
+     * and moves the game into the next state.
+     * Deadlines of states that were already completed by player input
+     * are ignored. The deadline is queued behind the pending commands
+     * of the game in the {@code GameCommandExecutor}.
+     *
+     * @param g              the game instance.
+     * @param state          the state the deadline was registered for.
+     * @param round          the round the deadline was registered in.
+     * @param deadlineMillis the deadline as epoch milliseconds.
+     */
+    private void onDeadline(final Game g, final GameState state,
+                            final int round, final long deadlineMillis) {
+        final Game game = getUpdatedGame(g);
+        final long now = System.currentTimeMillis();
+        gameMetrics.deadlineFired(deadlineMillis, now);
+        gameCommandExecutor.submit(game,
+                () -> runDeadline(game, state, round, now));
+    }
+
+    /**
+     * Runs the timeout logic of a state on the thread of the game.
+     *
+     * @param game  the game instance.
+     * @param state the state the deadline was registered for.
+     * @param round the round the deadline was registered in.
+     * @param now   the time the deadline fired, in epoch milliseconds.
+     */
+    private void runDeadline(final Game game, final GameState state,
+                             final int round, final long now) {
+        if (!state.equals(game.getGameState())
+                || round != game.getRoundsPlayed()) {
+            return;
+        }
+        game.setTime(TimeUnit.MILLISECONDS.toSeconds(now)
+                - game.getStartTimeSeconds());
+
+        switch (state) {
+            case PICK_WORD_STATE:
+                pickWord(game);
+                enterState(game, getNextState(game));
+                break;
+            case ENTER_CLUES_STATE:
+                sendClue(game);
+                enterState(game, getNextState(game));
+                break;
+            case VOTE_ON_CLUES_STATE:
+                vote(game);
+                enterState(game, getNextState(game));
+                break;
+            case ENTER_GUESS_STATE:
+                game.setGuessCorrect(false);
+                updateScores(game);
+                guesserScore(game, GUESS_TIME);
+                enterState(game, getNextState(game));
+                break;
+            case TRANSITION_STATE:
+                startNewRound(game);
+                if (game.getRoundsPlayed() > game.getRounds()) {
+                    game.setRoundsPlayed(game.getRounds());
+                    enterState(game, GameState.END_GAME_STATE);
+                } else {
+                    enterState(game, getNextState(game));
                 }
-            }
-        };
-        if (game[0].getRoundsPlayed() <= game[0].getRounds()) {
-            game[0].getTimer().schedule(timerTask, 0, SCHEDULE_PERIOD);
+                break;
+            default:
+                endGame(game);
+                break;
+        }
+    }
+
+    /**
+     * Removes a finished game from the {@code LiveGameStore},
+     * then stores its results and deletes it in the background.
+     * Until it is deleted, the game is not loaded back into the store.
+     * Once the results are committed, the lobby is broadcast again.
+     *
+     * @param game the game.
+     */
+    private void endGame(final Game game) {
+        liveGameStore.remove(game.getLobbyId());
+        gameTimers.remove(game.getLobbyId());
+        gameMetrics.gameEnded(game.getLobbyId());
+        botClueCandidates.cancel(game.getLobbyId());
+        gameEventPublisher.close(game.getLobbyId());
+        AtomicReference<Lobby> endedLobby = new AtomicReference<>();
+        gameWriter.finish(game, () -> endedLobby.set(storeResults(game)),
+                () -> {
+                    liveGameStore.ended(game.getLobbyId());
+                    lobbyEventPublisher.lobbyChanged(endedLobby.get());
+                });
+        log.debug("Clue check cache: {}, stem cache: {}",
+                NLP.getResultStats(), NLP.getStemStats());
+    }
+
+    /**
+     * Stores the results of a finished game and deletes it.
+     *
+     * @param game the game.
+     * @return the lobby of the game, with its players loaded.
+     */
+    private Lobby storeResults(final Game game) {
+        updateUserDatabase(game);
+        Lobby currentLobby = getUpdatedLobby(game.getLobbyId());
+        currentLobby.setGameIsStarted(false);
+        lobbyRepository.saveAndFlush(currentLobby);
+        Hibernate.initialize(currentLobby.getPlayersInLobby());
+
+        LobbyScore lobbyScore = new LobbyScore();
+        lobbyScore.setLobbyName(game.getLobbyName());
+        lobbyScore.setScore(game.getOverallScore());
+        lobbyScore.setPlayersIdInLobby(game.getPlayers());
+        lobbyScore.setDate(new Date());
+        lobbyScoreRepository.saveAndFlush(lobbyScore);
+
+        for (Player p : game.getPlayers()) {
+            p.setScore(0);
         }
+        playerRepository.saveAll(game.getPlayers());
+
+        game.setPlayers(null);
+        game.setCurrentGuesser(null);
+        gameRepository.delete(gameRepository.save(game));
+        gameRepository.flush();
+        return currentLobby;
     }
 
     /**
@@ -803,28 +958,33 @@ public class GameService {
     }
 
     /**
-     * Gets whether the current timer is cancelled.
+     * Gets the current instance of a game, from the {@code LiveGameStore}
+     * if it is running, otherwise from the {@code gameRepository}.
      *
      * @param game the game.
-     * @return whether the timer is cancelled.
+     * @return the game.
      */
-    public boolean getCancel(final Game game) {
-        Optional<Game> updated = gameRepository
+    public Game getUpdatedGame(final Game game) {
+        Optional<Game> liveGame = liveGameStore.get(game.getLobbyId());
+        if (liveGame.isPresent()) {
+            return liveGame.get();
+        }
+        Optional<Game> currentGame = gameRepository
                 .findByLobbyId(game.getLobbyId());
-        return updated.map(value -> value.getTimer()
-                .isCancel()).orElse(false);
+        return currentGame.orElse(game);
     }
 
     /**
-     * Gets the game from the {@code gameRepository}.
+     * Gets the instance of a player held by a game.
      *
-     * @param game the game.
-     * @return the game.
+     * @param game   the game.
+     * @param player the player.
+     * @return the player of the game, or the given player
+     * if the game does not contain it.
      */
-    public Game getUpdatedGame(final Game game) {
-        Optional<Game> currentGame = gameRepository
-                .findByLobbyId(game.getLobbyId());
-        return currentGame.orElse(game);
+    private Player playerInGame(final Game game, final Player player) {
+        int index = game.getPlayers().indexOf(player);
+        return index < 0 ? player : game.getPlayers().get(index);
     }
 
     /**
@@ -859,81 +1019,52 @@ public class GameService {
         return nextGameState;
     }
 
-    /**
-     * Sets the timer for a game.
-     *
-     * @param game the game.
-     */
-    public void setTimer(final Game game) {
-        game.setTimer(new InternalTimer());
-        game.getTimer().setCancel(false);
-    }
-
     /**
      * Generates clues for bots.
      *
      * @param game the game.
      */
     public void generateCluesForBots(final Game game) {
-        Lobby lobby;
-        Optional<Lobby> foundLobby = lobbyRepository
-                .findByLobbyId(game.getLobbyId());
-        if (foundLobby.isEmpty()) {
-            return;
-        }
-        lobby = foundLobby.get();
-        String uri;
-        // the api call is a bit different
-        // if the current word consists of two separate words
-        String[] split = game.getCurrentWord().split(" ");
-        if (split.length == 1) {
-            uri = String.format(
-                    "https://api.datamuse.com/words?ml=%s",
-                    split[0]);
-        } else if (split.length == 2) {
-            uri = String.format(
-                    "https://api.datamuse.com/words?ml=%s+%s",
-                    split[0], split[1]);
-        } else {
+        Optional<Integer> numBots = lobbyRepository
+                .findCurrentNumBotsByLobbyId(game.getLobbyId());
+        if (numBots.isEmpty()) {
             return;
         }
-        RestTemplate restTemplate = new RestTemplate();
-        String result = restTemplate.getForObject(uri, String.class);
         // in the case of a game with 3 players,
         // a bot submits two clues instead of one
         int amountOfClues = (game.isSpecialGame()
-                ? lobby.getCurrentNumBots() * 2
-                : lobby.getCurrentNumBots());
-        ObjectMapper objectMapper = new ObjectMapper();
-        try {
-            List<APIResponse> response = objectMapper
-                    .readValue(result, new TypeReference<>() {
-                    });
-            Iterator<APIResponse> iterator = response.iterator();
-            for (int i = 0; i < amountOfClues; i++) {
-                while (iterator.hasNext()) {
-                    APIResponse apiResponse = iterator.next();
-                    String potentialClue = apiResponse.getWord();
-                    if (NLP.checkClue(potentialClue, game.getCurrentWord())) {
-                        Clue clueFromBot = new Clue();
-                        clueFromBot.setPlayerId(0L);
-                        clueFromBot.setActualClue(potentialClue);
-                        if (!game.getEnteredClues().contains(clueFromBot)) {
-                            game.getEnteredClues().add(clueFromBot);
-                            clueRepository.saveAndFlush(clueFromBot);
-                            break;
-                        }
+                ? numBots.get() * 2
+                : numBots.get());
+        if (amountOfClues == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        // prefetched when the word was picked, never waited for
+        Iterator<String> iterator = botClueCandidates
+                .get(game.getLobbyId(), game.getCurrentWord()).iterator();
+        NLP.Word currentWord = NLP.prepare(game.getCurrentWord());
+        for (int i = 0; i < amountOfClues; i++) {
+            while (iterator.hasNext()) {
+                String potentialClue = iterator.next();
+                if (NLP.checkClue(potentialClue, currentWord)) {
+                    Clue clueFromBot = new Clue();
+                    clueFromBot.setPlayerId(0L);
+                    clueFromBot.setActualClue(potentialClue);
+                    if (!game.getEnteredClues().contains(clueFromBot)) {
+                        game.getEnteredClues().add(clueFromBot);
+                        break;
                     }
                 }
             }
-        } catch (JsonProcessingException ex) {
-            ex.getMessage();
         }
+        gameMetrics.botCluesGenerated(System.nanoTime() - start);
     }
 
     /**
      * Checks if the player has already voted.
-     * If not, it stores the invalid words of the player.
+     * If not, it counts the votes of the player against the entered clues,
+     * which were opened for voting when the game entered the vote state;
+     * words that are not entered clues are ignored.
      * If all players have voted the invalid clues and the timer gets canceled.
      *
      * @param game         the game.
@@ -942,17 +1073,15 @@ public class GameService {
      * @return whether all votes were successful.
      */
     public boolean vote(final Game game,
-                        final Player player,
+                        final Player voter,
                         final List<String> invalidWords) {
+        Player player = playerInGame(game, voter);
         if (player.isVoted()) {
             throw new UnauthorizedException(
                     "This player already sent his votes!");
         }
         for (String s : invalidWords) {
-            Clue clue = new Clue();
-            clue.setPlayerId(player.getId());
-            clue.setActualClue(s);
-            game.addInvalidClue(clue);
+            game.addVote(s);
         }
         player.setVoted(true);
         int counter = 0;
@@ -965,8 +1094,8 @@ public class GameService {
             int ceil = (int) Math.ceil(
                     ((float) game.getPlayers().size() - 1) / 2);
             checkVotes(game, ceil);
-            game.getTimer().setCancel(true);
-            gameRepository.saveAndFlush(game);
+        } else {
+            gameEventPublisher.changed(game);
         }
         return allSent(game, counter);
     }
@@ -984,11 +1113,13 @@ public class GameService {
         }
         checkVotes(game, (int) Math.ceil(
                 ((float) game.getPlayers().size() - 1) / 2));
-        gameRepository.saveAndFlush(game);
     }
 
     /**
-     * Checks the validity of the votes.
+     * Checks the validity of the votes. The clues with at least
+     * {@code threshold} votes are removed from the entered clues.
+     * Each clue is looked up once in the counted votes,
+     * so the check is linear in the amount of clues.
      *
      * @param game      the game.
      * @param threshold the threshold of maximal votes allowed.
@@ -1000,32 +1131,28 @@ public class GameService {
             return;
         }
         List<Clue> actualInvalidClues = new ArrayList<>();
+        // the invalid clues in lower case, to return each clue once
+        Set<String> invalidWords = new HashSet<>();
         Iterator<Clue> iterator = game.getEnteredClues().iterator();
         while (iterator.hasNext()) {
             Clue clue = iterator.next();
-            int occurrences =
-                    Collections.frequency(game.getInvalidClues(), clue);
-            if (occurrences >= threshold) {
+            if (game.getVotes(clue.getActualClue()) >= threshold) {
                 iterator.remove();
-                if (!actualInvalidClues.contains(clue)) {
+                if (invalidWords.add(clue.getActualClue().toLowerCase())) {
                     actualInvalidClues.add(clue);
                 }
             }
         }
         // Iterate over invalidClues to preserve clues voted out from NLP
-        iterator = game.getInvalidClues().iterator();
-        while (iterator.hasNext()) {
-            Clue invalidClue = iterator.next();
-            if (invalidClue.getPlayerId().equals(-1L)
-                    || invalidClue.getPlayerId().equals(0L)) {
-                if (!actualInvalidClues.contains(invalidClue)) {
-                    actualInvalidClues.add(invalidClue);
-                }
+        for (Clue invalidClue : game.getInvalidClues()) {
+            if ((invalidClue.getPlayerId().equals(-1L)
+                    || invalidClue.getPlayerId().equals(0L))
+                    && invalidWords.add(
+                            invalidClue.getActualClue().toLowerCase())) {
+                actualInvalidClues.add(invalidClue);
             }
         }
-        // Remove duplicates from list of invalid clues to return to client
         game.setInvalidClues(actualInvalidClues);
-        gameRepository.saveAndFlush(game);
     }
 
     /**
@@ -1047,6 +1174,5 @@ public class GameService {
             // if the same clue wasn't sent before
             game.addClue(clue);
         }
-        gameRepository.saveAndFlush(game);
     }
 }
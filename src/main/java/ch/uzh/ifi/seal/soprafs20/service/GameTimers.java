@@ -0,0 +1,126 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import ch.uzh.ifi.seal.soprafs20.entity.Player;
+import ch.uzh.ifi.seal.soprafs20.exceptions.NotFoundException;
+import ch.uzh.ifi.seal.soprafs20.exceptions.UnauthorizedException;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the deadline of the current state and the tokens of the players
+ * of every running game, so the remaining time of a state is answered
+ * without loading the game.
+ */
+@Component
+public class GameTimers {
+
+    /**
+     * The timers of the running games, keyed by lobby id.
+     */
+    private final Map<Long, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Starts tracking a running game. The players of a game do not change
+     * while it is running, so their tokens are only read once.
+     *
+     * @param game the game.
+     */
+    public void track(final Game game) {
+        timers.computeIfAbsent(game.getLobbyId(), lobbyId -> {
+            Set<String> tokens = new HashSet<>();
+            for (Player player : game.getPlayers()) {
+                tokens.add(player.getToken());
+            }
+            return new Timer(tokens);
+        });
+    }
+
+    /**
+     * Sets the deadline of the current state of a game.
+     *
+     * @param lobbyId        the lobby id of the game.
+     * @param deadlineMillis the deadline as epoch milliseconds.
+     * @param ended          whether the game is in its end state.
+     */
+    public void setDeadline(final Long lobbyId, final long deadlineMillis,
+                            final boolean ended) {
+        Timer timer = timers.get(lobbyId);
+        if (timer != null) {
+            timer.state = new State(deadlineMillis, ended);
+        }
+    }
+
+    /**
+     * Stops tracking a game that has ended.
+     *
+     * @param lobbyId the lobby id of the game.
+     */
+    public void remove(final Long lobbyId) {
+        timers.remove(lobbyId);
+    }
+
+    /**
+     * Gets the remaining seconds of the current state of a game,
+     * rounded up. The time is always 0 once the game is in its end state.
+     *
+     * @param lobbyId the lobby id of the game.
+     * @param token   the token of the requesting player.
+     * @return the remaining seconds, empty if no deadline is set yet.
+     */
+    public OptionalLong getRemainingSeconds(final Long lobbyId,
+                                            final String token) {
+        Timer timer = timers.get(lobbyId);
+        if (timer == null) {
+            throw new NotFoundException("Could not find game!");
+        }
+        if (!timer.tokens.contains(token)) {
+            throw new UnauthorizedException(
+                    "Not allowed to retrieve timer for this game!");
+        }
+        State state = timer.state;
+        if (state == null) {
+            return OptionalLong.empty();
+        }
+        if (state.ended) {
+            return OptionalLong.of(0);
+        }
+        long remainingMillis = state.deadlineMillis
+                - System.currentTimeMillis();
+        return OptionalLong.of(Math.max((remainingMillis + 999) / 1000, 0));
+    }
+
+    /**
+     * The tokens of the players of a game and its current deadline.
+     */
+    private static final class Timer {
+
+        private final Set<String> tokens;
+
+        private volatile State state;
+
+        private Timer(final Set<String> tokens) {
+            this.tokens = tokens;
+        }
+    }
+
+    /**
+     * The deadline of one state, replaced as a whole.
+     */
+    private static final class State {
+
+        private final long deadlineMillis;
+
+        private final boolean ended;
+
+        private State(final long deadlineMillis, final boolean ended) {
+            this.deadlineMillis = deadlineMillis;
+            this.ended = ended;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.entity.Clue;
+import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import ch.uzh.ifi.seal.soprafs20.entity.Player;
+import ch.uzh.ifi.seal.soprafs20.repository.ClueRepository;
+import ch.uzh.ifi.seal.soprafs20.repository.GameRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes the running games of the {@code LiveGameStore} behind
+ * to the database. Games are marked dirty at state transitions and
+ * written in batches by a single background thread, so requests of
+ * the players never wait for the database.
+ */
+@Component
+public class GameWriter {
+
+    private final Logger log = LoggerFactory.getLogger(GameWriter.class);
+
+    /**
+     * The game repository.
+     */
+    private final GameRepository gameRepository;
+
+    /**
+     * The clue repository.
+     */
+    private final ClueRepository clueRepository;
+
+    /**
+     * The versions of the lobbies, which show the scores of the players.
+     */
+    private final VersionRegistry versionRegistry;
+
+    /**
+     * Runs each batch in one transaction.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The background thread writing the batches.
+     */
+    private final Executor executor;
+
+    /**
+     * The games waiting to be written, keyed by lobby id.
+     */
+    private final Map<Long, Game> dirty = new ConcurrentHashMap<>();
+
+    /**
+     * Whether a batch is already queued.
+     */
+    private final AtomicBoolean batchQueued = new AtomicBoolean();
+
+    /**
+     * Constructs an instance of this class.
+     *
+     * @param gameRepository     repository of stored games
+     * @param clueRepository     repository of stored clues
+     * @param versionRegistry    versions of the lobbies
+     * @param transactionManager the transaction manager
+     */
+    @Autowired
+    public GameWriter(final GameRepository gameRepository,
+                      final ClueRepository clueRepository,
+                      final VersionRegistry versionRegistry,
+                      final PlatformTransactionManager transactionManager) {
+        this(gameRepository, clueRepository, versionRegistry, transactionManager,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "game-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    GameWriter(final GameRepository gameRepository,
+               final ClueRepository clueRepository,
+               final VersionRegistry versionRegistry,
+               final PlatformTransactionManager transactionManager,
+               final Executor executor) {
+        this.gameRepository = gameRepository;
+        this.clueRepository = clueRepository;
+        this.versionRegistry = versionRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+    }
+
+    /**
+     * Marks a game to be written with the next batch.
+     * A game marked several times before the batch runs is written once.
+     *
+     * @param game the game.
+     */
+    public void persist(final Game game) {
+        dirty.put(game.getLobbyId(), game);
+        if (batchQueued.compareAndSet(false, true)) {
+            executor.execute(this::writeBatch);
+        }
+    }
+
+    /**
+     * Runs the final database work of a game that has ended.
+     * A pending write of the game is dropped, as the game is deleted.
+     *
+     * @param game        the game.
+     * @param work        the work, run in one transaction after all earlier batches.
+     * @param afterCommit run after the work is committed.
+     */
+    public void finish(final Game game, final Runnable work,
+                       final Runnable afterCommit) {
+        dirty.remove(game.getLobbyId());
+        executor.execute(() -> {
+            try {
+                transactionTemplate.execute(status -> {
+                    work.run();
+                    return null;
+                });
+                versionRegistry.lobbyChanged(game.getLobbyId());
+                afterCommit.run();
+            } catch (RuntimeException ex) {
+                log.error(String.format(
+                        "Could not finish game %d:%s", game.getLobbyId(), ex));
+            }
+        });
+    }
+
+    /**
+     * Writes all dirty games in one transaction.
+     */
+    void writeBatch() {
+        batchQueued.set(false);
+        List<Game> batch = new ArrayList<>();
+        for (Long lobbyId : new ArrayList<>(dirty.keySet())) {
+            Game game = dirty.remove(lobbyId);
+            if (game != null) {
+                batch.add(game);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                batch.forEach(this::write);
+                return null;
+            });
+            batch.forEach(game ->
+                    versionRegistry.lobbyChanged(game.getLobbyId()));
+        } catch (RuntimeException ex) {
+            log.error(String.format(
+                    "Could not write %d games:%s", batch.size(), ex));
+        }
+    }
+
+    /**
+     * Writes one game. Clues that were entered since the last write
+     * are persisted first, so they receive their id before the game
+     * is merged.
+     *
+     * @param game the game.
+     */
+    private void write(final Game game) {
+        synchronized (game) {
+            List<Clue> clues = new ArrayList<>(game.getEnteredClues());
+            clues.addAll(game.getInvalidClues());
+            for (Player player : game.getPlayers()) {
+                clues.addAll(player.getClues());
+            }
+            for (Clue clue : clues) {
+                if (clue.getClueId() == null) {
+                    clueRepository.save(clue);
+                }
+            }
+            gameRepository.save(game);
+        }
+    }
+
+    /**
+     * Writes the remaining games when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        writeBatch();
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.RelatedWordsIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Finds related words in the index bundled with the server, which is
+ * built from WordNet at build time and covers the game words.
+ * Words missing from the index are looked up with the Datamuse API,
+ * unless {@code bots.remote-fallback} is disabled.
+ */
+@Primary
+@Component
+public class IndexedRelatedWordsClient implements RelatedWordsClient {
+
+    /**
+     * The classpath location of the index.
+     */
+    static final String INDEX_RESOURCE = "related-words.idx";
+
+    private final Logger log = LoggerFactory.getLogger(IndexedRelatedWordsClient.class);
+
+    /**
+     * The related words of the game words.
+     */
+    private final RelatedWordsIndex index;
+
+    /**
+     * Finds the words missing from the index, null if disabled.
+     */
+    private final RelatedWordsClient fallback;
+
+    /**
+     * Constructs an instance of this class.
+     *
+     * @param datamuseClient client of the Datamuse API
+     * @param remoteFallback whether to look up missing words remotely
+     */
+    @Autowired
+    public IndexedRelatedWordsClient(final DatamuseClient datamuseClient,
+                                     @Value("${bots.remote-fallback:true}")
+                                     final boolean remoteFallback) {
+        this.index = loadIndex();
+        this.fallback = remoteFallback ? datamuseClient : null;
+    }
+
+    IndexedRelatedWordsClient(final RelatedWordsIndex index,
+                              final RelatedWordsClient fallback) {
+        this.index = index;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Gets the words related to a word from the index, or from the
+     * fallback if the word is not indexed.
+     *
+     * @param word the word.
+     * @return the related words, the most related first.
+     */
+    @Override
+    public List<String> getRelatedWords(final String word) {
+        List<String> related = index.get(word);
+        if (!related.isEmpty() || fallback == null) {
+            return related;
+        }
+        return fallback.getRelatedWords(word);
+    }
+
+    private RelatedWordsIndex loadIndex() {
+        ClassPathResource resource = new ClassPathResource(INDEX_RESOURCE);
+        if (!resource.exists()) {
+            log.warn(String.format("No %s on the classpath, "
+                    + "related words are looked up remotely", INDEX_RESOURCE));
+            return RelatedWordsIndex.empty();
+        }
+        try (InputStream in = resource.getInputStream()) {
+            RelatedWordsIndex loaded = RelatedWordsIndex.read(in);
+            log.info(String.format("Loaded related words of %d words",
+                    loaded.size()));
+            return loaded;
+        } catch (IOException ex) {
+            throw new IllegalStateException(
+                    "Could not read " + INDEX_RESOURCE, ex);
+        }
+    }
+}
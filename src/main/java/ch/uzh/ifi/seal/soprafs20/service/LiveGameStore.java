@@ -0,0 +1,115 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the running games in memory.
+ * While a game is played, the instance in this store is the source of truth;
+ * the database only receives the state written behind by {@code GameWriter}.
+ * A game that has ended stays marked until its results are stored and it is
+ * deleted, so that it is not loaded back from the database in the meantime.
+ */
+@Component
+public class LiveGameStore {
+
+    /**
+     * The running games, keyed by lobby id.
+     */
+    private final Map<Long, Game> games = new ConcurrentHashMap<>();
+
+    /**
+     * The lobby ids of the games that have ended but are not deleted yet.
+     */
+    private final Set<Long> ending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Gets a running game.
+     *
+     * @param lobbyId the lobby id of the game.
+     * @return the game, if it is running.
+     */
+    public Optional<Game> get(final Long lobbyId) {
+        return Optional.ofNullable(games.get(lobbyId));
+    }
+
+    /**
+     * Adds a running game. A game that is already in the store is kept,
+     * so every caller works on the same instance.
+     *
+     * @param game the game.
+     * @return the instance held by the store.
+     */
+    public Game put(final Game game) {
+        Game previous = games.putIfAbsent(game.getLobbyId(), game);
+        return previous == null ? game : previous;
+    }
+
+    /**
+     * Adds a new game of a lobby, replacing a game of the lobby
+     * that is still in the store.
+     *
+     * @param game the game.
+     * @return the game.
+     */
+    public Game replace(final Game game) {
+        ending.remove(game.getLobbyId());
+        games.put(game.getLobbyId(), game);
+        return game;
+    }
+
+    /**
+     * Removes a game that has ended and marks it as ending
+     * until {@link #ended(Long)} is called.
+     *
+     * @param lobbyId the lobby id of the game.
+     */
+    public void remove(final Long lobbyId) {
+        ending.add(lobbyId);
+        games.remove(lobbyId);
+    }
+
+    /**
+     * Unmarks a game that has ended once it is deleted.
+     *
+     * @param lobbyId the lobby id of the game.
+     */
+    public void ended(final Long lobbyId) {
+        ending.remove(lobbyId);
+    }
+
+    /**
+     * Gets whether a game has ended but is not deleted yet.
+     *
+     * @param lobbyId the lobby id of the game.
+     * @return whether the game is ending.
+     */
+    public boolean isEnding(final Long lobbyId) {
+        return ending.contains(lobbyId);
+    }
+
+    /**
+     * Gets all running games.
+     *
+     * @return a copy of the running games.
+     */
+    public List<Game> getGames() {
+        return new ArrayList<>(games.values());
+    }
+
+    /**
+     * Gets the amount of running games.
+     *
+     * @return the amount of games in the store.
+     */
+    public int size() {
+        return games.size();
+    }
+}
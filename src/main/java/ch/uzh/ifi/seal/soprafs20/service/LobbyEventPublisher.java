@@ -0,0 +1,65 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.entity.Lobby;
+import ch.uzh.ifi.seal.soprafs20.rest.dto.MessageGetDTO;
+import ch.uzh.ifi.seal.soprafs20.rest.mapper.LobbyViewMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the changes of a lobby and its chat: their versions are
+ * increased and the change is broadcast to the STOMP subscribers of the
+ * lobby topics. Every change is serialized once per topic.
+ * Has to be called after the change is committed.
+ */
+@Component
+public class LobbyEventPublisher {
+
+    /**
+     * Sends the messages to the STOMP subscribers.
+     */
+    private final SimpMessageSendingOperations messaging;
+
+    /**
+     * The versions of the lobbies and chats.
+     */
+    private final VersionRegistry versionRegistry;
+
+    /**
+     * Constructs an instance of this class.
+     *
+     * @param messaging       sender of the STOMP messages
+     * @param versionRegistry versions of the lobbies and chats
+     */
+    @Autowired
+    public LobbyEventPublisher(final SimpMessageSendingOperations messaging,
+                               final VersionRegistry versionRegistry) {
+        this.messaging = messaging;
+        this.versionRegistry = versionRegistry;
+    }
+
+    /**
+     * Broadcasts the current state of a lobby on {@code /topic/lobbies/{lobbyId}}.
+     *
+     * @param lobby the lobby.
+     */
+    public void lobbyChanged(final Lobby lobby) {
+        versionRegistry.lobbyChanged(lobby.getLobbyId());
+        messaging.convertAndSend("/topic/lobbies/" + lobby.getLobbyId(),
+                LobbyViewMapper.toView(lobby));
+    }
+
+    /**
+     * Broadcasts a new chat message on {@code /topic/lobbies/{lobbyId}/chat}.
+     *
+     * @param lobbyId       the lobby id of the chat.
+     * @param messageGetDTO the message.
+     */
+    public void chatMessage(final Long lobbyId,
+                            final MessageGetDTO messageGetDTO) {
+        versionRegistry.chatChanged(lobbyId);
+        messaging.convertAndSend(
+                "/topic/lobbies/" + lobbyId + "/chat", messageGetDTO);
+    }
+}
@@ -26,11 +26,13 @@ public class LobbyService {
 
     private final LobbyRepository lobbyRepository;
     private final PlayerRepository playerRepository;
+    private final WordPacks wordPacks;
 
     @Autowired
-    public LobbyService(LobbyRepository lobbyRepository,PlayerRepository playerRepository) {
+    public LobbyService(LobbyRepository lobbyRepository,PlayerRepository playerRepository, WordPacks wordPacks) {
         this.lobbyRepository = lobbyRepository;
         this.playerRepository = playerRepository;
+        this.wordPacks = wordPacks;
     }
 
     public List<Lobby> getLobbies() {
@@ -48,6 +50,17 @@ public class LobbyService {
         }
     }
 
+    /**
+     * Gets the number of bots of a lobby without loading the lobby.
+     *
+     * @param lobbyId The id of the lobby
+     * @return The number of bots
+     */
+    public int getCurrentNumBots(Long lobbyId){
+        return lobbyRepository.findCurrentNumBotsByLobbyId(lobbyId)
+                .orElseThrow(() -> new NotFoundException("Could not find lobby!"));
+    }
+
     public Lobby createLobby(Lobby newLobby, Player host){
         checkLobbyName(newLobby.getLobbyName());
         checkIfLobbyExists(newLobby);
@@ -69,7 +82,7 @@ public class LobbyService {
      * Method to update a given lobby
      *
      * @param lobby The lobby to be updated
-     * @param receivedValues The values to update the lobby (i.e. max. numbers of players, number of bots)
+     * @param receivedValues The values to update the lobby (i.e. max. numbers of players, number of bots, word pack)
      * @return The updated lobby
      */
     public Lobby updateLobby(Lobby lobby, LobbyPutDTO receivedValues){
@@ -94,6 +107,15 @@ public class LobbyService {
         if(receivedValues.getRounds() != null && (receivedValues.getRounds() >= 3 || receivedValues.getRounds() <= 13)){
             lobby.setRounds(receivedValues.getRounds());
         }
+        if(receivedValues.getWordPack() != null){
+            //throws if the pack does not exist
+            wordPacks.get(receivedValues.getWordPack());
+            if(!receivedValues.getWordPack().equals(lobby.getWordPack())){
+                lobby.setWordPack(receivedValues.getWordPack());
+                //the words are drawn from a new permutation of the new pack
+                lobby.setWordSeed(null);
+            }
+        }
         return lobby;
     }
 
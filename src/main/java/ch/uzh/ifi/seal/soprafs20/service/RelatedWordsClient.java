@@ -0,0 +1,17 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import java.util.List;
+
+/**
+ * Finds the words related to a word, which the bots use as clues.
+ */
+public interface RelatedWordsClient {
+
+    /**
+     * Gets the words related to a word.
+     *
+     * @param word the word, may consist of several words.
+     * @return the related words, the most related first.
+     */
+    List<String> getRelatedWords(String word);
+}
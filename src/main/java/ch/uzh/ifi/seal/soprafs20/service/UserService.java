@@ -228,4 +228,21 @@ public class UserService {
     public List<User> getUsersByScore() {
         return this.userRepository.findAllByOrderByScoreDesc();
     }
+
+    /**
+     * Gets the usernames of users in one query, without loading the users.
+     *
+     * @param ids the ids of the users
+     * @return the usernames by id
+     */
+    public Map<Long, String> getUsernames(Collection<Long> ids) {
+        Map<Long, String> usernames = new HashMap<>();
+        if (ids.isEmpty()) {
+            return usernames;
+        }
+        for (UserRepository.UsernameView user : userRepository.findByIdIn(ids)) {
+            usernames.put(user.getId(), user.getUsername());
+        }
+        return usernames;
+    }
 }
@@ -0,0 +1,138 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds a version for the game, the lobby and the chat of each lobby
+ * and one for the list of all lobbies. A version is increased after
+ * every change of its resource, so clients can revalidate their copy
+ * with an {@code ETag} without the resource being loaded.
+ * The versions are only kept in memory, so each ETag also contains
+ * the start time of the application.
+ */
+@Component
+public class VersionRegistry {
+
+    /**
+     * Distinguishes the ETags of different runs of the application.
+     */
+    private final String epoch =
+            Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    /**
+     * The versions of the games, keyed by lobby id.
+     */
+    private final Map<Long, AtomicLong> games = new ConcurrentHashMap<>();
+
+    /**
+     * The versions of the lobbies, keyed by lobby id.
+     */
+    private final Map<Long, AtomicLong> lobbies = new ConcurrentHashMap<>();
+
+    /**
+     * The versions of the chats, keyed by lobby id.
+     */
+    private final Map<Long, AtomicLong> chats = new ConcurrentHashMap<>();
+
+    /**
+     * The version of the list of all lobbies.
+     */
+    private final AtomicLong lobbyList = new AtomicLong();
+
+    /**
+     * Increases the version of a game.
+     *
+     * @param lobbyId the lobby id of the game.
+     */
+    public void gameChanged(final Long lobbyId) {
+        increment(games, lobbyId);
+    }
+
+    /**
+     * Increases the version of a lobby and of the list of all lobbies.
+     *
+     * @param lobbyId the lobby id.
+     */
+    public void lobbyChanged(final Long lobbyId) {
+        increment(lobbies, lobbyId);
+        lobbyList.incrementAndGet();
+    }
+
+    /**
+     * Increases the version of a chat.
+     *
+     * @param lobbyId the lobby id of the chat.
+     */
+    public void chatChanged(final Long lobbyId) {
+        increment(chats, lobbyId);
+    }
+
+    /**
+     * Gets the current version of a game.
+     *
+     * @param lobbyId the lobby id of the game.
+     * @return the version.
+     */
+    public long getGameVersion(final Long lobbyId) {
+        return get(games, lobbyId);
+    }
+
+    /**
+     * Gets the ETag of the current version of a game.
+     *
+     * @param lobbyId the lobby id of the game.
+     * @return the ETag.
+     */
+    public String getGameETag(final Long lobbyId) {
+        return eTag("game", get(games, lobbyId));
+    }
+
+    /**
+     * Gets the ETag of the current version of a lobby.
+     *
+     * @param lobbyId the lobby id.
+     * @return the ETag.
+     */
+    public String getLobbyETag(final Long lobbyId) {
+        return eTag("lobby", get(lobbies, lobbyId));
+    }
+
+    /**
+     * Gets the ETag of the current version of the list of all lobbies.
+     *
+     * @return the ETag.
+     */
+    public String getLobbyListETag() {
+        return eTag("lobbies", lobbyList.get());
+    }
+
+    /**
+     * Gets the ETag of the current version of a chat.
+     *
+     * @param lobbyId the lobby id of the chat.
+     * @return the ETag.
+     */
+    public String getChatETag(final Long lobbyId) {
+        return eTag("chat", get(chats, lobbyId));
+    }
+
+    private static void increment(final Map<Long, AtomicLong> versions,
+                                  final Long lobbyId) {
+        versions.computeIfAbsent(lobbyId, id -> new AtomicLong())
+                .incrementAndGet();
+    }
+
+    private static long get(final Map<Long, AtomicLong> versions,
+                            final Long lobbyId) {
+        AtomicLong version = versions.get(lobbyId);
+        return version == null ? 0 : version.get();
+    }
+
+    private String eTag(final String resource, final long version) {
+        return "\"" + resource + "-" + epoch + "-" + version + "\"";
+    }
+}
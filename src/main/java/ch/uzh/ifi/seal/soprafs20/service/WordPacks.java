@@ -0,0 +1,115 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.WordDictionary;
+import ch.uzh.ifi.seal.soprafs20.exceptions.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The word packs a lobby can play with. Besides the built-in pack
+ * {@value #DEFAULT_PACK}, every {@code <name>.wordpack} file in the
+ * directory {@code wordpacks.dir} is a pack, memory-mapped at startup.
+ * Packs with fewer than {@value #WORDS_PER_GAME} words are not loaded,
+ * since a game draws one word per round.
+ */
+@Component
+public class WordPacks {
+
+    /**
+     * The name of the built-in pack.
+     */
+    public static final String DEFAULT_PACK = "default";
+
+    /**
+     * The file extension of the packs.
+     */
+    static final String EXTENSION = ".wordpack";
+
+    /**
+     * The amount of words a game draws, one for each of at most 13 rounds.
+     */
+    public static final int WORDS_PER_GAME = 13;
+
+    private final Logger log = LoggerFactory.getLogger(WordPacks.class);
+
+    /**
+     * The packs, keyed by name.
+     */
+    private final Map<String, WordDictionary> packs = new TreeMap<>();
+
+    /**
+     * Constructs an instance of this class.
+     *
+     * @param directory directory of the word pack files
+     */
+    @Autowired
+    public WordPacks(@Value("${wordpacks.dir:wordpacks}")
+                     final String directory) {
+        packs.put(DEFAULT_PACK, WordDictionary.getInstance());
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files =
+                     Files.newDirectoryStream(dir, "*" + EXTENSION)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String name = fileName.substring(0,
+                        fileName.length() - EXTENSION.length());
+                try {
+                    WordDictionary pack = WordDictionary.map(file);
+                    if (pack.size() < WORDS_PER_GAME) {
+                        log.error(String.format("Could not load word pack %s: "
+                                + "it has %d words, a game needs %d",
+                                file, pack.size(), WORDS_PER_GAME));
+                        continue;
+                    }
+                    packs.put(name, pack);
+                } catch (IOException | IllegalArgumentException ex) {
+                    log.error(String.format("Could not load word pack %s: %s",
+                            file, ex.getMessage()));
+                }
+            }
+        } catch (IOException ex) {
+            log.error(String.format("Could not list word packs in %s: %s",
+                    dir, ex.getMessage()));
+        }
+        log.info(String.format("Word packs: %s", packs.keySet()));
+    }
+
+    /**
+     * Gets a word pack.
+     *
+     * @param name the name of the pack, null for the built-in pack.
+     * @return the pack.
+     */
+    public WordDictionary get(final String name) {
+        WordDictionary pack = packs.get(name == null ? DEFAULT_PACK : name);
+        if (pack == null) {
+            throw new NotFoundException(
+                    String.format("Word pack %s does not exist!", name));
+        }
+        return pack;
+    }
+
+    /**
+     * Gets the names of all word packs.
+     *
+     * @return the names, sorted.
+     */
+    public Set<String> getNames() {
+        return packs.keySet();
+    }
+}
@@ -0,0 +1,132 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.WordDictionary;
+import ch.uzh.ifi.seal.soprafs20.GameLogic.WordPermutation;
+import ch.uzh.ifi.seal.soprafs20.entity.Lobby;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws the words of the games of a lobby. Each lobby walks through a
+ * random permutation of its word pack, so no word is repeated until the
+ * pack is exhausted; then a new permutation is started. The lobby stores
+ * only the seed of the permutation and its cursor.
+ */
+@Component
+public class WordSampler {
+
+    /**
+     * The word packs the words are drawn from.
+     */
+    private final WordPacks wordPacks;
+
+    /**
+     * Constructs an instance of this class.
+     *
+     * @param wordPacks the word packs.
+     */
+    @Autowired
+    public WordSampler(final WordPacks wordPacks) {
+        this.wordPacks = wordPacks;
+    }
+
+    /**
+     * Draws the next words of a lobby from its word pack and advances
+     * the cursor of the lobby.
+     *
+     * @param lobby  the lobby.
+     * @param amount the amount of words.
+     * @return the words in random order, fewer if the pack is smaller.
+     */
+    public List<String> draw(final Lobby lobby, final int amount) {
+        return getWords(lobby.getWordPack(), drawIndices(lobby, amount));
+    }
+
+    /**
+     * Draws the indices of the next words of a lobby in its word pack
+     * and advances the cursor of the lobby.
+     *
+     * @param lobby  the lobby.
+     * @param amount the amount of words.
+     * @return the indices in random order, fewer if the pack is smaller.
+     */
+    public int[] drawIndices(final Lobby lobby, final int amount) {
+        int size = wordPacks.get(lobby.getWordPack()).size();
+        int[] indices = new int[Math.min(amount, size)];
+        int drawn = 0;
+        if (lobby.getWordSeed() == null || lobby.getWordCursor() == null
+                || lobby.getWordCursor() >= size) {
+            restart(lobby);
+        }
+        WordPermutation permutation =
+                new WordPermutation(size, lobby.getWordSeed());
+        int cursor = lobby.getWordCursor();
+        boolean restarted = false;
+        while (drawn < indices.length) {
+            if (cursor == size) {
+                restart(lobby);
+                permutation = new WordPermutation(size, lobby.getWordSeed());
+                cursor = 0;
+                restarted = true;
+            }
+            int index = permutation.get(cursor++);
+            // only after a restart a word can come up twice
+            if (!restarted || !contains(indices, drawn, index)) {
+                indices[drawn++] = index;
+            }
+        }
+        lobby.setWordCursor(cursor);
+        return indices;
+    }
+
+    /**
+     * Gets a word of a word pack.
+     *
+     * @param wordPack the name of the pack, null for the built-in pack.
+     * @param index    the index of the word in the pack.
+     * @return the word.
+     */
+    public String getWord(final String wordPack, final int index) {
+        return wordPacks.get(wordPack).get(index);
+    }
+
+    /**
+     * Gets words of a word pack.
+     *
+     * @param wordPack the name of the pack, null for the built-in pack.
+     * @param indices  the indices of the words in the pack.
+     * @return the words.
+     */
+    public List<String> getWords(final String wordPack, final int[] indices) {
+        WordDictionary pack = wordPacks.get(wordPack);
+        List<String> words = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            words.add(pack.get(index));
+        }
+        return words;
+    }
+
+    /**
+     * Starts a new permutation for a lobby, e.g. after its word pack changed.
+     *
+     * @param lobby the lobby.
+     */
+    public void restart(final Lobby lobby) {
+        lobby.setWordSeed(ThreadLocalRandom.current().nextLong());
+        lobby.setWordCursor(0);
+    }
+
+    private static boolean contains(final int[] indices, final int length,
+                                    final int index) {
+        for (int i = 0; i < length; i++) {
+            if (indices[i] == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
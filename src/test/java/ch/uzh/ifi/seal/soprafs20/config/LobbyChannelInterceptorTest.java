@@ -0,0 +1,178 @@
+package ch.uzh.ifi.seal.soprafs20.config;
+
+import ch.uzh.ifi.seal.soprafs20.entity.Lobby;
+import ch.uzh.ifi.seal.soprafs20.entity.Player;
+import ch.uzh.ifi.seal.soprafs20.exceptions.UnauthorizedException;
+import ch.uzh.ifi.seal.soprafs20.repository.LobbyRepository;
+import ch.uzh.ifi.seal.soprafs20.repository.PlayerRepository;
+import ch.uzh.ifi.seal.soprafs20.service.GameEventPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LobbyChannelInterceptorTest {
+
+    private PlayerRepository playerRepository;
+
+    private GameEventPublisher gameEventPublisher;
+
+    private LobbyChannelInterceptor lobbyChannelInterceptor;
+
+    private final MessageChannel channel = Mockito.mock(MessageChannel.class);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        playerRepository = Mockito.mock(PlayerRepository.class);
+        LobbyRepository lobbyRepository = Mockito.mock(LobbyRepository.class);
+        gameEventPublisher = Mockito.mock(GameEventPublisher.class);
+        ObjectProvider<GameEventPublisher> provider = Mockito.mock(ObjectProvider.class);
+        Mockito.when(provider.getObject()).thenReturn(gameEventPublisher);
+        lobbyChannelInterceptor = new LobbyChannelInterceptor(playerRepository, lobbyRepository, provider);
+
+        Player player = new Player();
+        player.setId(1L);
+        player.setToken("playerToken");
+        Lobby lobby = new Lobby();
+        lobby.setLobbyId(1L);
+        lobby.setCurrentNumBots(2);
+        lobby.addPlayerToLobby(player);
+        Mockito.when(lobbyRepository.findByLobbyId(1L)).thenReturn(Optional.of(lobby));
+        Lobby otherLobby = new Lobby();
+        otherLobby.setLobbyId(2L);
+        Mockito.when(lobbyRepository.findByLobbyId(2L)).thenReturn(Optional.of(otherLobby));
+        Mockito.when(playerRepository.findByToken("playerToken")).thenReturn(Optional.of(player));
+    }
+
+    private Message<byte[]> connect(String token) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        if (token != null) {
+            accessor.setNativeHeader(LobbyChannelInterceptor.TOKEN_HEADER, token);
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private Message<byte[]> subscribe(String token, String destination) {
+        return frame(StompCommand.SUBSCRIBE, token, destination);
+    }
+
+    private Message<byte[]> send(String token, String destination) {
+        return frame(StompCommand.SEND, token, destination);
+    }
+
+    private Message<byte[]> frame(StompCommand command, String token, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setUser(new LobbyChannelInterceptor.PlayerPrincipal(token));
+        accessor.setDestination(destination);
+        accessor.setSessionId("session1");
+        accessor.setSubscriptionId("sub1");
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    void connect_validToken_setsUser() {
+        Message<?> message = lobbyChannelInterceptor.preSend(connect("playerToken"), channel);
+
+        assertEquals("playerToken", StompHeaderAccessor.wrap(message).getUser().getName());
+    }
+
+    @Test
+    void connect_unknownToken_throwsUnauthorized() {
+        assertThrows(UnauthorizedException.class,
+                () -> lobbyChannelInterceptor.preSend(connect("unknown"), channel));
+        assertThrows(UnauthorizedException.class,
+                () -> lobbyChannelInterceptor.preSend(connect(null), channel));
+    }
+
+    @Test
+    void subscribe_lobbyTopicOfOtherLobby_throwsUnauthorized() {
+        assertThrows(UnauthorizedException.class,
+                () -> lobbyChannelInterceptor.preSend(subscribe("otherToken", "/topic/lobbies/1/chat"), channel));
+    }
+
+    @Test
+    void subscribe_gameQueue_registersWithPublisher() {
+        lobbyChannelInterceptor.preSend(subscribe("playerToken", "/user/queue/lobbies/1/game"), channel);
+
+        Mockito.verify(gameEventPublisher).subscribe(1L, 2, "playerToken", "session1", "sub1");
+    }
+
+    @Test
+    void subscribe_lobbyTopic_doesNotRegisterWithPublisher() {
+        lobbyChannelInterceptor.preSend(subscribe("playerToken", "/topic/lobbies/1"), channel);
+
+        Mockito.verifyNoInteractions(gameEventPublisher);
+    }
+
+    @Test
+    void subscribe_wildcard_throwsUnauthorized() {
+        for (String destination : new String[] {"/topic/**", "/topic/lobbies/*/chat", "/topic/lobbies/1/ch?t",
+                "/topic/lobbies/{id}/chat", "/user/queue/lobbies/1/**"}) {
+            assertThrows(UnauthorizedException.class,
+                    () -> lobbyChannelInterceptor.preSend(subscribe("playerToken", destination), channel),
+                    destination);
+        }
+        Mockito.verifyNoInteractions(gameEventPublisher);
+    }
+
+    @Test
+    void subscribe_brokerQueue_throwsUnauthorized() {
+        assertThrows(UnauthorizedException.class,
+                () -> lobbyChannelInterceptor.preSend(subscribe("playerToken", "/queue/lobbies/1/game"), channel));
+        assertThrows(UnauthorizedException.class,
+                () -> lobbyChannelInterceptor.preSend(
+                        subscribe("playerToken", "/queue/lobbies/2/game-usersession2"), channel));
+    }
+
+    @Test
+    void subscribe_otherLobbyOfPlayer_throwsUnauthorized() {
+        assertThrows(UnauthorizedException.class,
+                () -> lobbyChannelInterceptor.preSend(subscribe("playerToken", "/topic/lobbies/2/chat"), channel));
+        assertThrows(UnauthorizedException.class,
+                () -> lobbyChannelInterceptor.preSend(subscribe("playerToken", "/user/queue/lobbies/2/game"), channel));
+        Mockito.verifyNoInteractions(gameEventPublisher);
+    }
+
+    @Test
+    void subscribe_unknownDestination_throwsUnauthorized() {
+        assertThrows(UnauthorizedException.class,
+                () -> lobbyChannelInterceptor.preSend(subscribe("playerToken", "/topic/lobbies/1/secret"), channel));
+        assertThrows(UnauthorizedException.class,
+                () -> lobbyChannelInterceptor.preSend(subscribe("playerToken", null), channel));
+    }
+
+    @Test
+    void subscribe_errorQueue_allowed() {
+        assertDoesNotThrow(() -> lobbyChannelInterceptor.preSend(subscribe("playerToken", "/user/queue/errors"), channel));
+    }
+
+    @Test
+    void send_commandOfOwnLobby_allowed() {
+        assertDoesNotThrow(() -> lobbyChannelInterceptor.preSend(send("playerToken", "/app/lobbies/1/game/vote"), channel));
+        assertDoesNotThrow(() -> lobbyChannelInterceptor.preSend(send("playerToken", "/app/lobbies/1/chat"), channel));
+    }
+
+    @Test
+    void send_commandOfOtherLobby_throwsUnauthorized() {
+        assertThrows(UnauthorizedException.class,
+                () -> lobbyChannelInterceptor.preSend(send("playerToken", "/app/lobbies/2/game/clue"), channel));
+    }
+
+    @Test
+    void send_brokerDestination_throwsUnauthorized() {
+        assertThrows(UnauthorizedException.class,
+                () -> lobbyChannelInterceptor.preSend(send("playerToken", "/topic/lobbies/1/chat"), channel));
+    }
+}
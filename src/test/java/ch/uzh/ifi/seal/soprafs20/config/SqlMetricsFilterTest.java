@@ -0,0 +1,85 @@
+package ch.uzh.ifi.seal.soprafs20.config;
+
+import ch.uzh.ifi.seal.soprafs20.entity.User;
+import ch.uzh.ifi.seal.soprafs20.repository.UserRepository;
+import ch.uzh.ifi.seal.soprafs20.service.UserService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "metrics.sql.header-enabled=true")
+@AutoConfigureMockMvc
+class SqlMetricsFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @AfterEach
+    void cleanUp() {
+        if (user != null) {
+            userRepository.deleteById(user.getId());
+        }
+    }
+
+    @Test
+    void getUsers_queryCountHeaderAndMetrics() throws Exception {
+        MvcResult result = mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String queryCount = result.getResponse().getHeader(SqlMetricsFilter.QUERY_COUNT_HEADER);
+        assertNotNull(queryCount);
+        assertTrue(Integer.parseInt(queryCount) >= 1);
+
+        DistributionSummary statements = meterRegistry.get("endpoint.sql.statements")
+                .tag("controller", "UserController")
+                .tag("method", "getAllUsers")
+                .summary();
+        assertTrue(statements.count() >= 1);
+        assertTrue(meterRegistry.get("endpoint.requests")
+                .tag("controller", "UserController")
+                .tag("method", "getAllUsers")
+                .timer().count() >= 1);
+    }
+
+    @Test
+    void getUser_countsLoadedEntity() throws Exception {
+        user = new User();
+        user.setUsername("sqlUser");
+        user.setPassword("password");
+        user = userService.createUser(user);
+
+        mockMvc.perform(get("/users/{id}", user.getId()))
+                .andExpect(status().isOk());
+
+        DistributionSummary entitiesLoaded = meterRegistry.get("endpoint.entities.loaded")
+                .tag("controller", "UserController")
+                .tag("method", "getUser")
+                .summary();
+        assertEquals(1, entitiesLoaded.count());
+        assertEquals(1, entitiesLoaded.totalAmount());
+    }
+}
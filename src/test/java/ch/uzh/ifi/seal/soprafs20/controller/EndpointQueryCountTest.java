@@ -0,0 +1,244 @@
+package ch.uzh.ifi.seal.soprafs20.controller;
+
+import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import ch.uzh.ifi.seal.soprafs20.entity.Lobby;
+import ch.uzh.ifi.seal.soprafs20.entity.Player;
+import ch.uzh.ifi.seal.soprafs20.entity.User;
+import ch.uzh.ifi.seal.soprafs20.repository.ChatRepository;
+import ch.uzh.ifi.seal.soprafs20.repository.GameRepository;
+import ch.uzh.ifi.seal.soprafs20.repository.LobbyRepository;
+import ch.uzh.ifi.seal.soprafs20.repository.PlayerRepository;
+import ch.uzh.ifi.seal.soprafs20.repository.UserRepository;
+import ch.uzh.ifi.seal.soprafs20.rest.dto.GamePostDTO;
+import ch.uzh.ifi.seal.soprafs20.service.ChatService;
+import ch.uzh.ifi.seal.soprafs20.service.GameService;
+import ch.uzh.ifi.seal.soprafs20.service.UserService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements of the read endpoints and fails if an endpoint
+ * needs more than its budget, e.g. because a collection is loaded eagerly again
+ * or a list is loaded one row at a time.
+ */
+@WebAppConfiguration
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointQueryCountTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private LobbyRepository lobbyRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private GameService gameService;
+
+    private MockMvc mockMvc;
+    private Statistics statistics;
+    private User alice;
+    private Long lobbyId;
+
+    @BeforeAll
+    void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        User bob = createUser("countBob");
+        User carol = createUser("countCarol");
+        User dave = createUser("countDave");
+
+        Player host = createPlayer(bob);
+        Lobby lobby = new Lobby();
+        lobby.setHostId(host.getId());
+        lobby.setHostToken(host.getToken());
+        lobby.setLobbyName("countLobby");
+        lobby.setMaxPlayersAndBots(7);
+        lobby.setRounds(13);
+        lobby.addPlayerToLobby(host);
+        lobby.addPlayerToLobby(createPlayer(carol));
+        lobby.addPlayerToLobby(createPlayer(dave));
+        lobby.setCurrentNumBots(0);
+        lobby.setCurrentNumPlayers(3);
+        lobby = lobbyRepository.saveAndFlush(lobby);
+        lobbyId = lobby.getLobbyId();
+        chatService.createChat(lobbyId);
+
+        alice = new User();
+        alice.setUsername("countAlice");
+        alice.setPassword("password");
+        alice.addFriend(bob);
+        alice.addFriend(carol);
+        alice.setFriendRequests(dave);
+        alice.setLobbyInvites(lobby);
+        alice = userService.createUser(alice);
+
+        GamePostDTO gamePostDTO = new GamePostDTO();
+        gamePostDTO.setHostId(host.getId());
+        gamePostDTO.setHostToken(host.getToken());
+        gameService.createGame(lobby, gamePostDTO);
+    }
+
+    @AfterAll
+    void cleanUp() {
+        statistics.setStatisticsEnabled(false);
+        transactionTemplate.execute(status -> {
+            gameRepository.findById(lobbyId).ifPresent(game -> {
+                game.getPlayers().clear();
+                gameRepository.delete(game);
+            });
+            chatRepository.findByLobbyId(lobbyId).ifPresent(chatRepository::delete);
+            for (User user : userRepository.findAll()) {
+                if (user.getUsername().startsWith("count")) {
+                    user.getFriendList().clear();
+                    user.getFriendRequests().clear();
+                    user.getLobbyInvites().clear();
+                }
+            }
+            lobbyRepository.findById(lobbyId).ifPresent(lobby -> {
+                lobby.getPlayersInLobby().clear();
+                lobbyRepository.delete(lobby);
+            });
+            return null;
+        });
+        for (Player player : playerRepository.findAll()) {
+            if (player.getUsername().startsWith("count")) {
+                playerRepository.delete(player);
+            }
+        }
+        for (User user : userRepository.findAll()) {
+            if (user.getUsername().startsWith("count")) {
+                userRepository.delete(user);
+            }
+        }
+    }
+
+    @Test
+    void getLobbies() throws Exception {
+        assertStatements(2, get("/lobbies").param("token", alice.getToken()));
+    }
+
+    @Test
+    void getLobby() throws Exception {
+        assertStatements(1, get("/lobbies/{lobbyId}", lobbyId));
+    }
+
+    @Test
+    void getChat() throws Exception {
+        Player host = playerRepository.findById(lobbyHostId()).orElseThrow();
+        assertStatements(3, get("/lobbies/{lobbyId}/chat", lobbyId).param("token", host.getToken()));
+    }
+
+    @Test
+    void getUsers() throws Exception {
+        assertStatements(1, get("/users"));
+    }
+
+    @Test
+    void getUser() throws Exception {
+        assertStatements(1, get("/users/{id}", alice.getId()));
+    }
+
+    @Test
+    void getFriends() throws Exception {
+        assertStatements(2, get("/users/{id}/friends", alice.getId()).param("token", alice.getToken()));
+    }
+
+    @Test
+    void getFriendRequests() throws Exception {
+        assertStatements(2, get("/users/{id}/friendRequests", alice.getId()).param("token", alice.getToken()));
+    }
+
+    @Test
+    void getLobbyInvites() throws Exception {
+        assertStatements(3, get("/users/{id}/invitations", alice.getId()).param("token", alice.getToken()));
+    }
+
+    @Test
+    void getScoreboard() throws Exception {
+        assertStatements(2, get("/users/scores").param("token", alice.getToken()));
+    }
+
+    @Test
+    void getGame() throws Exception {
+        Game game = gameService.getGame(lobbyId);
+        assertStatements(1, get("/lobbies/{lobbyId}/game", lobbyId).param("token", game.getCurrentGuesser().getToken()));
+    }
+
+    @Test
+    void getTimer() throws Exception {
+        Game game = gameService.getGame(lobbyId);
+        assertStatements(0, get("/lobbies/{lobbyId}/game/timer", lobbyId).param("token", game.getCurrentGuesser().getToken()));
+    }
+
+    private void assertStatements(long budget, RequestBuilder request) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= budget,
+                String.format("%d SQL statements, the budget is %d", statements, budget));
+    }
+
+    private long lobbyHostId() {
+        return lobbyRepository.findById(lobbyId).orElseThrow().getHostId();
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+        return userService.createUser(user);
+    }
+
+    private Player createPlayer(User user) {
+        Player player = new Player();
+        player.setId(user.getId());
+        player.setUsername(user.getUsername());
+        player.setToken(user.getToken());
+        return playerRepository.saveAndFlush(player);
+    }
+}
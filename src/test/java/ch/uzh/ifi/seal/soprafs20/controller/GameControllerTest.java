@@ -7,9 +7,13 @@ import ch.uzh.ifi.seal.soprafs20.exceptions.UnauthorizedException;
 import ch.uzh.ifi.seal.soprafs20.rest.dto.CluePutDTO;
 import ch.uzh.ifi.seal.soprafs20.rest.dto.MessagePutDTO;
 import ch.uzh.ifi.seal.soprafs20.rest.dto.VotePutDTO;
+import ch.uzh.ifi.seal.soprafs20.service.GameCommandExecutor;
+import ch.uzh.ifi.seal.soprafs20.service.GameEventPublisher;
 import ch.uzh.ifi.seal.soprafs20.service.GameService;
+import ch.uzh.ifi.seal.soprafs20.service.GameTimers;
 import ch.uzh.ifi.seal.soprafs20.service.LobbyService;
 import ch.uzh.ifi.seal.soprafs20.service.PlayerService;
+import ch.uzh.ifi.seal.soprafs20.service.VersionRegistry;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -17,9 +21,12 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.ArrayList;
 import java.util.concurrent.TimeUnit;
@@ -41,6 +48,14 @@ class GameControllerTest {
     private GameService gameService;
     @MockBean
     private LobbyService lobbyService;
+    @SpyBean
+    private GameCommandExecutor gameCommandExecutor;
+    @MockBean
+    private GameEventPublisher gameEventPublisher;
+    @SpyBean
+    private VersionRegistry versionRegistry;
+    @SpyBean
+    private GameTimers gameTimers;
 
 
     @Test
@@ -73,7 +88,7 @@ class GameControllerTest {
         game.addClue(invalidClue);
 
         given(gameService.getGame(Mockito.anyLong())).willReturn(game);
-        given(lobbyService.getLobby(Mockito.anyLong())).willReturn(lobby);
+        given(lobbyService.getCurrentNumBots(Mockito.anyLong())).willReturn(lobby.getCurrentNumBots());
 
         MockHttpServletRequestBuilder getRequest = get("/lobbies/{lobbyId}/game", game.getLobbyId())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -90,6 +105,78 @@ class GameControllerTest {
                 .andExpect(jsonPath("$.invalidClues", hasSize(1)));
     }
 
+    @Test
+    void getGame_unchangedVersion_returnsNotModified() throws Exception {
+        MockHttpServletRequestBuilder getRequest = get("/lobbies/{lobbyId}/game", 1L)
+                .header(HttpHeaders.IF_NONE_MATCH, versionRegistry.getGameETag(1L))
+                .param("token", "token1");
+
+        mockMvc.perform(getRequest)
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, versionRegistry.getGameETag(1L)))
+                .andExpect(content().string(""));
+        Mockito.verifyNoInteractions(gameService, lobbyService);
+    }
+
+    @Test
+    void getGame_changedVersion_returnsGame() throws Exception {
+        Player player = new Player();
+        player.setId(1L);
+        player.setToken("token1");
+
+        Lobby lobby = new Lobby();
+        lobby.setCurrentNumBots(0);
+
+        Game game = new Game();
+        game.setLobbyId(1L);
+        game.addPlayer(player);
+        game.setCurrentGuesser(player);
+        game.setGameState(GameState.PICK_WORD_STATE);
+
+        given(gameService.getGame(Mockito.anyLong())).willReturn(game);
+        given(lobbyService.getCurrentNumBots(Mockito.anyLong())).willReturn(lobby.getCurrentNumBots());
+
+        String eTag = versionRegistry.getGameETag(1L);
+        versionRegistry.gameChanged(1L);
+
+        MockHttpServletRequestBuilder getRequest = get("/lobbies/{lobbyId}/game", 1L)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .param("token", "token1");
+
+        mockMvc.perform(getRequest)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, versionRegistry.getGameETag(1L)))
+                .andExpect(jsonPath("$.lobbyId", is(1)));
+    }
+
+    @Test
+    void pollGame_sinceVersion_parkedAsynchronously() throws Exception {
+        Player player = new Player();
+        player.setId(1L);
+        player.setToken("token1");
+
+        Lobby lobby = new Lobby();
+        lobby.setCurrentNumBots(0);
+
+        Game game = new Game();
+        game.setLobbyId(1L);
+        game.addPlayer(player);
+        game.setCurrentGuesser(player);
+
+        given(gameService.getGame(Mockito.anyLong())).willReturn(game);
+        given(lobbyService.getCurrentNumBots(Mockito.anyLong())).willReturn(lobby.getCurrentNumBots());
+        given(gameEventPublisher.poll(game, 0, "token1", 3L, 5000L)).willReturn(new DeferredResult<>());
+
+        MockHttpServletRequestBuilder getRequest = get("/lobbies/{lobbyId}/game", 1L)
+                .param("token", "token1")
+                .param("sinceVersion", "3")
+                .param("waitMs", "5000");
+
+        mockMvc.perform(getRequest)
+                .andExpect(request().asyncStarted());
+        Mockito.verify(gameEventPublisher).poll(game, 0, "token1", 3L, 5000L);
+    }
+
     @Test
     void givenGameWithBots_whenGetGame_returnBotsInJson() throws Exception {
         Player player1 = new Player();
@@ -122,7 +209,7 @@ class GameControllerTest {
         game.addClue(invalidClue);
 
         given(gameService.getGame(Mockito.anyLong())).willReturn(game);
-        given(lobbyService.getLobby(Mockito.anyLong())).willReturn(lobby);
+        given(lobbyService.getCurrentNumBots(Mockito.anyLong())).willReturn(lobby.getCurrentNumBots());
 
         MockHttpServletRequestBuilder getRequest = get("/lobbies/{lobbyId}/game", game.getLobbyId())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -163,7 +250,7 @@ class GameControllerTest {
         game.setGameState(GameState.PICK_WORD_STATE);
 
         given(gameService.getGame(Mockito.anyLong())).willReturn(game);
-        given(lobbyService.getLobby(Mockito.anyLong())).willReturn(lobby);
+        given(lobbyService.getCurrentNumBots(Mockito.anyLong())).willReturn(lobby.getCurrentNumBots());
 
         MockHttpServletRequestBuilder getRequest = get("/lobbies/{lobbyId}/game", game.getLobbyId())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -194,7 +281,7 @@ class GameControllerTest {
         game.setCurrentWord("Erdbeermarmeladebrot");
 
         given(gameService.getGame(Mockito.anyLong())).willReturn(game);
-        given(lobbyService.getLobby(Mockito.anyLong())).willReturn(lobby);
+        given(lobbyService.getCurrentNumBots(Mockito.anyLong())).willReturn(lobby.getCurrentNumBots());
 
         MockHttpServletRequestBuilder getRequest = get("/lobbies/{lobbyId}/game", game.getLobbyId())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -214,7 +301,6 @@ class GameControllerTest {
         player2.setId(2L);
         player2.setToken("token2");
 
-        InternalTimer timer = new InternalTimer();
 
         Game game = new Game();
         game.setLobbyId(1L);
@@ -223,7 +309,6 @@ class GameControllerTest {
         game.setCurrentGuesser(player1);
         game.setCurrentWord("Erdbeermarmeladebrot");
         game.setGameState(GameState.ENTER_CLUES_STATE);
-        game.setTimer(timer);
 
         CluePutDTO cluePutDTO = new CluePutDTO();
         cluePutDTO.setMessage("Zopf");
@@ -263,7 +348,7 @@ class GameControllerTest {
         cluePutDTO.setPlayerId(player2.getId());
         cluePutDTO.setPlayerToken(player2.getToken());
 
-        //given(gameService.getGame(Mockito.anyLong())).willReturn(game);
+        given(gameService.getGame(Mockito.anyLong())).willReturn(game);
         given(playerService.getPlayer(Mockito.any())).willReturn(player1);
 
         given(gameService.sendClue(Mockito.any(), Mockito.any(), Mockito.any())).willThrow(new UnauthorizedException("ex"));
@@ -287,7 +372,6 @@ class GameControllerTest {
         player2.setId(2L);
         player2.setToken("token2");
 
-        InternalTimer timer = new InternalTimer();
 
         Game game = new Game();
         game.setLobbyId(1L);
@@ -295,7 +379,6 @@ class GameControllerTest {
         game.addPlayer(player1);
         game.setCurrentGuesser(player1);
         game.setGameState(GameState.PICK_WORD_STATE);
-        game.setTimer(timer);
         game.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
 
         given(gameService.getGame(Mockito.anyLong())).willReturn(game);
@@ -341,7 +424,6 @@ class GameControllerTest {
         player1.setId(1L);
         player1.setToken("token1");
 
-        InternalTimer timer = new InternalTimer();
 
         Game game = new Game();
         game.setLobbyId(1L);
@@ -349,7 +431,6 @@ class GameControllerTest {
         game.addPlayer(player1);
         game.setCurrentGuesser(player1);
         game.setGameState(GameState.ENTER_GUESS_STATE);
-        game.setTimer(timer);
         game.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
 
         MessagePutDTO messagePutDTO = new MessagePutDTO();
@@ -374,7 +455,6 @@ class GameControllerTest {
 
         Player player2 = new Player();
 
-        InternalTimer timer = new InternalTimer();
 
         Game game = new Game();
         game.setLobbyId(1L);
@@ -382,7 +462,6 @@ class GameControllerTest {
         game.addPlayer(player1);
         game.setCurrentGuesser(player2);
         game.setGameState(GameState.VOTE_ON_CLUES_STATE);
-        game.setTimer(timer);
         game.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
 
         ArrayList<String> invalidClues = new ArrayList<>();
@@ -411,7 +490,6 @@ class GameControllerTest {
 
         Player player2 = new Player();
 
-        InternalTimer timer = new InternalTimer();
 
         Game game = new Game();
         game.setLobbyId(1L);
@@ -419,7 +497,6 @@ class GameControllerTest {
         game.addPlayer(player1);
         game.setCurrentGuesser(player2);
         game.setGameState(GameState.ENTER_GUESS_STATE);
-        game.setTimer(timer);
         game.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
 
         ArrayList<String> invalidClues = new ArrayList<>();
@@ -445,7 +522,6 @@ class GameControllerTest {
         player1.setId(1L);
         player1.setToken("token1");
 
-        InternalTimer timer = new InternalTimer();
 
         Game game = new Game();
         game.setLobbyId(1L);
@@ -453,7 +529,6 @@ class GameControllerTest {
         game.addPlayer(player1);
         game.setCurrentGuesser(player1);
         game.setGameState(GameState.VOTE_ON_CLUES_STATE);
-        game.setTimer(timer);
         game.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
 
         ArrayList<String> invalidClues = new ArrayList<>();
@@ -473,50 +548,37 @@ class GameControllerTest {
         mockMvc.perform(putRequest).andExpect(status().isUnauthorized());
     }
 
-    @Test
-    void getTime_Authorized() throws Exception {
+    private Game timedGame(GameState gameState) {
         Player player1 = new Player();
         player1.setId(1L);
         player1.setToken("token1");
 
-        InternalTimer timer = new InternalTimer();
-
         Game game = new Game();
         game.setLobbyId(1L);
         game.setRoundsPlayed(1);
         game.addPlayer(player1);
         game.setCurrentGuesser(player1);
-        game.setGameState(GameState.VOTE_ON_CLUES_STATE);
-        game.setTimer(timer);
-        game.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
-        given(gameService.getGame(Mockito.anyLong())).willReturn(game);
+        game.setGameState(gameState);
+        gameTimers.track(game);
+        return game;
+    }
 
+    @Test
+    void getTime_Authorized() throws Exception {
+        Game game = timedGame(GameState.VOTE_ON_CLUES_STATE);
+        gameTimers.setDeadline(game.getLobbyId(), System.currentTimeMillis() + 10000, false);
 
         MockHttpServletRequestBuilder getRequest = get("/lobbies/{lobbyId}/game/timer?token=token1", game.getLobbyId())
                 .contentType(MediaType.APPLICATION_JSON);
 
         mockMvc.perform(getRequest).andExpect(status().isOk());
-
+        Mockito.verifyNoInteractions(gameService);
     }
 
     @Test
     void getTime_Unauthorized() throws Exception {
-        Player player1 = new Player();
-        player1.setId(1L);
-        player1.setToken("token1");
-
-        InternalTimer timer = new InternalTimer();
-
-        Game game = new Game();
-        game.setLobbyId(1L);
-        game.setRoundsPlayed(1);
-        game.addPlayer(player1);
-        game.setCurrentGuesser(player1);
-        game.setGameState(GameState.VOTE_ON_CLUES_STATE);
-        game.setTimer(timer);
-        game.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
-        given(gameService.getGame(Mockito.anyLong())).willReturn(game);
-
+        Game game = timedGame(GameState.VOTE_ON_CLUES_STATE);
+        gameTimers.setDeadline(game.getLobbyId(), System.currentTimeMillis() + 10000, false);
 
         MockHttpServletRequestBuilder getRequest = get("/lobbies/{lobbyId}/game/timer?token=aaaa", game.getLobbyId())
                 .contentType(MediaType.APPLICATION_JSON);
@@ -528,22 +590,8 @@ class GameControllerTest {
 
     @Test
     public void getTime_EndgameState() throws Exception {
-        Player player1 = new Player();
-        player1.setId(1L);
-        player1.setToken("token1");
-
-        InternalTimer timer = new InternalTimer();
-
-        Game game = new Game();
-        game.setLobbyId(1L);
-        game.setRoundsPlayed(1);
-        game.addPlayer(player1);
-        game.setCurrentGuesser(player1);
-        game.setGameState(GameState.END_GAME_STATE);
-        game.setTimer(timer);
-        game.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
-        given(gameService.getGame(Mockito.anyLong())).willReturn(game);
-
+        Game game = timedGame(GameState.END_GAME_STATE);
+        gameTimers.setDeadline(game.getLobbyId(), System.currentTimeMillis() + 10000, true);
 
         MockHttpServletRequestBuilder getRequest = get("/lobbies/{lobbyId}/game/timer?token=token1", game.getLobbyId())
                 .contentType(MediaType.APPLICATION_JSON);
@@ -554,23 +602,8 @@ class GameControllerTest {
 
     @Test
     void getTime_actualTime() throws Exception {
-        Player player1 = new Player();
-        player1.setId(1L);
-        player1.setToken("token1");
-
-        InternalTimer timer = new InternalTimer();
-
-        Game game = new Game();
-        game.setLobbyId(1L);
-        game.setRoundsPlayed(1);
-        game.addPlayer(player1);
-        game.setCurrentGuesser(player1);
-        game.setGameState(GameState.PICK_WORD_STATE);
-        game.setTimer(timer);
-        game.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
-        given(gameService.getGame(Mockito.anyLong())).willReturn(game);
-        given(gameService.getMaxTime(game)).willReturn(10);
-        Thread.sleep(3000);
+        Game game = timedGame(GameState.PICK_WORD_STATE);
+        gameTimers.setDeadline(game.getLobbyId(), System.currentTimeMillis() + 7000, false);
 
         MockHttpServletRequestBuilder getRequest = get("/lobbies/{lobbyId}/game/timer?token=token1", game.getLobbyId())
                 .contentType(MediaType.APPLICATION_JSON);
@@ -579,6 +612,14 @@ class GameControllerTest {
                 .andExpect(content().string("7"));
     }
 
+    @Test
+    void getTime_gameNotRunning_notFound() throws Exception {
+        MockHttpServletRequestBuilder getRequest = get("/lobbies/{lobbyId}/game/timer?token=token1", 2L)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(getRequest).andExpect(status().isNotFound());
+    }
+
     private String asJsonString(final Object object) {
         try {
             return new ObjectMapper().writeValueAsString(object);
@@ -0,0 +1,188 @@
+package ch.uzh.ifi.seal.soprafs20.controller;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.GameState;
+import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import ch.uzh.ifi.seal.soprafs20.entity.Lobby;
+import ch.uzh.ifi.seal.soprafs20.entity.Player;
+import ch.uzh.ifi.seal.soprafs20.exceptions.NotFoundException;
+import ch.uzh.ifi.seal.soprafs20.exceptions.UnauthorizedException;
+import ch.uzh.ifi.seal.soprafs20.repository.GameRepository;
+import ch.uzh.ifi.seal.soprafs20.repository.LobbyRepository;
+import ch.uzh.ifi.seal.soprafs20.repository.PlayerRepository;
+import ch.uzh.ifi.seal.soprafs20.rest.dto.GamePostDTO;
+import ch.uzh.ifi.seal.soprafs20.service.GameService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load benchmark of GET lobbies/{lobbyId}/game/timer.
+ * Compares the in-memory timer with the former implementation, which loaded the game from the database
+ * and scanned its players on every call. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class GameTimerBenchmark {
+
+    private static final int THREADS = 8;
+    private static final long WARMUP_MILLIS = 2000;
+    private static final long MEASURE_MILLIS = 5000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+    @Autowired
+    private LobbyRepository lobbyRepository;
+    @Autowired
+    private GameService gameService;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @TestConfiguration
+    static class LegacyTimerConfiguration {
+        @Bean
+        LegacyTimerController legacyTimerController(GameRepository gameRepository, GameService gameService,
+                                                    PlatformTransactionManager transactionManager) {
+            return new LegacyTimerController(gameRepository, gameService, transactionManager);
+        }
+    }
+
+    /**
+     * The timer endpoint as it was implemented before the deadlines were held in memory.
+     */
+    @RequestMapping("/benchmark")
+    @ResponseBody
+    static class LegacyTimerController {
+        private final GameRepository gameRepository;
+        private final GameService gameService;
+        private final TransactionTemplate transactionTemplate;
+
+        LegacyTimerController(GameRepository gameRepository, GameService gameService,
+                              PlatformTransactionManager transactionManager) {
+            this.gameRepository = gameRepository;
+            this.gameService = gameService;
+            this.transactionTemplate = new TransactionTemplate(transactionManager);
+        }
+
+        @GetMapping(path = "lobbies/{lobbyId}/game/timer")
+        public String getTimer(@PathVariable long lobbyId, @RequestParam String token) {
+            long currentTime = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+            Game game = transactionTemplate.execute(status -> gameRepository.findById(lobbyId)
+                    .orElseThrow(() -> new NotFoundException("Could not find game!")));
+            boolean found = false;
+            for (Player p : game.getPlayers()) {
+                if (p.getToken().equals(token)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                throw new UnauthorizedException("Not allowed to retrieve timer for this game!");
+            }
+            if (game.getGameState().equals(GameState.END_GAME_STATE)) {
+                return "0";
+            }
+            long diff = gameService.getMaxTime(game) - (currentTime - game.getStartTimeSeconds());
+            return Long.toString(Math.max(diff, 0));
+        }
+    }
+
+    private Game createGame() {
+        Lobby lobby = new Lobby();
+        lobby.setLobbyId(1L);
+        lobby.setLobbyName("Benchmark");
+        lobby.setMaxPlayersAndBots(7);
+        lobby.setRounds(13);
+        lobby.setCurrentNumBots(0);
+        for (long id = 1; id <= 5; id++) {
+            Player player = new Player();
+            player.setId(id);
+            player.setUsername("player" + id);
+            player.setToken("token" + id);
+            player = playerRepository.saveAndFlush(player);
+            lobby.addPlayerToLobby(player);
+            if (id == 1) {
+                lobby.setHostId(player.getId());
+                lobby.setHostToken(player.getToken());
+            }
+        }
+        lobby.setCurrentNumPlayers(lobby.getPlayersInLobby().size());
+        lobby = lobbyRepository.saveAndFlush(lobby);
+
+        GamePostDTO gamePostDTO = new GamePostDTO();
+        gamePostDTO.setHostId(lobby.getHostId());
+        gamePostDTO.setHostToken(lobby.getHostToken());
+        Game game = gameService.createGame(lobby, gamePostDTO);
+        gameService.timer(game);
+        return game;
+    }
+
+    private double requestsPerSecond(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        run(request, WARMUP_MILLIS);
+        return run(request, MEASURE_MILLIS) * 1000.0 / MEASURE_MILLIS;
+    }
+
+    private long run(HttpRequest request, long millis) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long end = System.currentTimeMillis() + millis;
+        List<Future<Long>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> {
+                long requests = 0;
+                while (System.currentTimeMillis() < end) {
+                    HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() == 200) {
+                        requests++;
+                    }
+                }
+                return requests;
+            }));
+        }
+        long total = 0;
+        for (Future<Long> result : results) {
+            total += result.get();
+        }
+        executor.shutdown();
+        return total;
+    }
+
+    @Test
+    void timer_inMemory_comparedToDatabase() throws Exception {
+        Game game = createGame();
+        String query = "/lobbies/" + game.getLobbyId() + "/game/timer?token=token3";
+
+        double before = requestsPerSecond("/benchmark" + query);
+        double after = requestsPerSecond(query);
+
+        System.out.println(String.format("GET %s with %d threads: database %.0f req/s, in memory %.0f req/s (%.1fx)",
+                query, THREADS, before, after, after / before));
+        assertTrue(before > 0 && after > 0);
+    }
+}
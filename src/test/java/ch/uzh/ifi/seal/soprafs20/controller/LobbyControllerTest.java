@@ -16,6 +16,8 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
@@ -53,6 +55,10 @@ class LobbyControllerTest {
     private MessageService messageService;
     @MockBean
     private LobbyScoreService lobbyScoreService;
+    @MockBean
+    private LobbyEventPublisher lobbyEventPublisher;
+    @SpyBean
+    private VersionRegistry versionRegistry;
 
 
     @Test
@@ -118,6 +124,33 @@ class LobbyControllerTest {
                 .andExpect(jsonPath("$.playersInLobby[1].username", is(player2.getUsername())));
     }
 
+    @Test
+    void getLobby_unchangedVersion_returnsNotModified() throws Exception {
+        MockHttpServletRequestBuilder getRequest = get("/lobbies/{lobbyId}", 1L)
+                .header(HttpHeaders.IF_NONE_MATCH, versionRegistry.getLobbyETag(1L));
+
+        mockMvc.perform(getRequest)
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, versionRegistry.getLobbyETag(1L)));
+        Mockito.verifyNoInteractions(lobbyService);
+    }
+
+    @Test
+    void getAllLobbies_changedVersion_returnsLobbies() throws Exception {
+        String eTag = versionRegistry.getLobbyListETag();
+        versionRegistry.lobbyChanged(1L);
+        given(lobbyService.getLobbies()).willReturn(Collections.emptyList());
+
+        MockHttpServletRequestBuilder getRequest = get("/lobbies")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .param("token", "anyToken");
+
+        mockMvc.perform(getRequest)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, versionRegistry.getLobbyListETag()))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
     @Test
     void createLobby_validInput_3Rounds() throws Exception {
        // given
@@ -361,6 +394,17 @@ class LobbyControllerTest {
                 .andExpect(jsonPath("$.messages[1].text", is(message2.getText())));
     }
 
+    @Test
+    void getChat_unchangedVersion_returnsNotModified() throws Exception {
+        MockHttpServletRequestBuilder getRequest = get("/lobbies/1/chat")
+                .header(HttpHeaders.IF_NONE_MATCH, versionRegistry.getChatETag(1L))
+                .param("token", "hostToken");
+
+        mockMvc.perform(getRequest)
+                .andExpect(status().isNotModified());
+        Mockito.verifyNoInteractions(lobbyService, chatService);
+    }
+
     @Test
     void getChat_invalidLobbyId_throwsException() throws Exception {
 
@@ -24,6 +24,7 @@ import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilde
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
@@ -406,6 +407,7 @@ class UserControllerTest {
         lobby.setLobbyId(1L);
         lobby.setLobbyName("lobbyName");
         lobby.setPrivateKey("privateKey");
+        lobby.setHostId(1L);
 
         User user = new User();
         user.setId(1L);
@@ -414,7 +416,7 @@ class UserControllerTest {
         user.setLobbyInvites(lobby);
 
         given(userService.getUserByToken(Mockito.any())).willReturn(user);
-        given(userService.getUser(Mockito.any())).willReturn(user);
+        given(userService.getUsernames(Mockito.any())).willReturn(Map.of(1L, user.getUsername()));
 
         MockHttpServletRequestBuilder getRequest = get("/users/{userId}/invitations", user.getId())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -5,6 +5,12 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -87,4 +93,88 @@ class NLPTest {
         assertFalse(nlp.checkClue(clue, word));
     }
 
+    @Test
+    void editDistance_isTwo() {
+        assertTrue(nlp.checkClue("tea", "sir"));
+        assertTrue(nlp.checkClue("cheese", "chess"));
+    }
+
+    @Test
+    void emptyClue_invalid() {
+        assertFalse(nlp.checkClue("", "piano"));
+    }
+
+    @Test
+    void tooLongClue_invalid() {
+        assertFalse(nlp.checkClue("a".repeat(31), "piano"));
+    }
+
+    @Test
+    void preparedWord_sameResults() {
+        NLP.Word word = nlp.prepare("Umbrella");
+
+        assertTrue(nlp.checkClue("rain", word));
+        assertFalse(nlp.checkClue("UMBRELLAS", word));
+        assertFalse(nlp.checkClue("umbrela", word));
+    }
+
+    @Test
+    void checkClue_concurrentThreads_consistentResults() throws Exception {
+        String[] clues = {"laughing", "music", "electric", "running", "syrup", "connections"};
+        String[] words = {"laughter", "piano", "electricity", "runner", "sirup", "connect"};
+        boolean[] expected = new boolean[clues.length];
+        for (int i = 0; i < clues.length; i++) {
+            expected[i] = new NLP().checkClue(clues[i], words[i]);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            results.add(executor.submit(() -> {
+                for (int n = 0; n < 2000; n++) {
+                    int i = n % clues.length;
+                    if (nlp.checkClue(clues[i], words[i]) != expected[i]) {
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void checkClue_repeated_answeredFromCache() {
+        NLP cachingNlp = new NLP();
+
+        assertTrue(cachingNlp.checkClue("Music", "piano"));
+        assertTrue(cachingNlp.checkClue("music", "Piano"));
+
+        assertEquals(1, cachingNlp.getResultStats().hitCount());
+        assertEquals(1, cachingNlp.getResultStats().missCount());
+    }
+
+    @Test
+    void warmUp_candidatesCached() {
+        NLP cachingNlp = new NLP();
+        cachingNlp.warmUp("umbrella", List.of("rain", "umbrellas", "parasol"));
+
+        assertFalse(cachingNlp.checkClue("umbrellas", "umbrella"));
+        assertTrue(cachingNlp.checkClue("parasol", "umbrella"));
+
+        assertEquals(2, cachingNlp.getResultStats().hitCount());
+    }
+
+    @Test
+    void checkClue_invalidCharacters_notCached() {
+        NLP cachingNlp = new NLP();
+
+        assertFalse(cachingNlp.checkClue("James Bond", "agent"));
+
+        assertEquals(0, cachingNlp.getResultStats().requestCount());
+    }
+
 }
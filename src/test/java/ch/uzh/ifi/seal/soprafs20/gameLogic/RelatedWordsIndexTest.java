@@ -0,0 +1,64 @@
+package ch.uzh.ifi.seal.soprafs20.gameLogic;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.RelatedWordsIndex;
+import ch.uzh.ifi.seal.soprafs20.GameLogic.WordReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RelatedWordsIndexTest {
+
+    private RelatedWordsIndex writeAndRead(Map<String, List<String>> related) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RelatedWordsIndex.write(related, out);
+        return RelatedWordsIndex.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    void get_writtenWords_rankedNeighbors() throws IOException {
+        RelatedWordsIndex index = writeAndRead(Map.of(
+                "Umbrella", List.of("canopy", "brolly", "rain"),
+                "sheep", List.of("ewe", "ram", "wool"),
+                "nuclear power", List.of("atomic energy", "reactor")));
+
+        assertEquals(List.of("canopy", "brolly", "rain"), index.get("umbrella"));
+        assertEquals(List.of("ewe", "ram", "wool"), index.get("Sheep"));
+        assertEquals(List.of("atomic energy", "reactor"), index.get("nuclear power"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void get_unknownWordOrNeighborOnly_empty() throws IOException {
+        RelatedWordsIndex index = writeAndRead(Map.of("sheep", List.of("ewe", "ram")));
+
+        assertTrue(index.get("goat").isEmpty());
+        assertTrue(index.get("ewe").isEmpty());
+        assertTrue(RelatedWordsIndex.empty().get("sheep").isEmpty());
+    }
+
+    @Test
+    void read_otherFile_throwsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RelatedWordsIndex.read(new ByteArrayInputStream(new byte[32])));
+    }
+
+    @Test
+    void bundledIndex_coversGameWords() throws IOException {
+        RelatedWordsIndex index;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("related-words.idx")) {
+            assertNotNull(in, "related-words.idx is built by buildRelatedWordsIndex");
+            index = RelatedWordsIndex.read(in);
+        }
+        List<String> words = new WordReader().getWords();
+        long covered = words.stream().filter(w -> !index.get(w).isEmpty()).count();
+
+        assertTrue(covered >= words.size() * 9 / 10);
+    }
+}
@@ -0,0 +1,78 @@
+package ch.uzh.ifi.seal.soprafs20.gameLogic;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.TextFile;
+import ch.uzh.ifi.seal.soprafs20.GameLogic.WordDictionary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WordDictionaryTest {
+
+    private final WordDictionary dictionary = WordDictionary.getInstance();
+
+    @Test
+    void getWords_sameAsTextFile() {
+        List<String> expected = new ArrayList<>();
+        for (String word : new TextFile().getWords().split("\n")) {
+            if (!word.isEmpty() && word.length() <= 12 && !expected.contains(word)) {
+                expected.add(word);
+            }
+        }
+
+        assertEquals(expected, dictionary.getWords());
+        assertEquals(expected.size(), dictionary.size());
+    }
+
+    @Test
+    void getWords_unmodifiable() {
+        assertThrows(UnsupportedOperationException.class, () -> dictionary.getWords().remove(0));
+    }
+
+    @Test
+    void getRandomWords_everyFifthWord_modifiable() {
+        List<String> randWords = dictionary.getRandomWords(13);
+
+        assertEquals(13, randWords.size());
+        int first = dictionary.getWords().indexOf(randWords.get(0));
+        assertEquals(dictionary.get((first + 5) % dictionary.size()), randWords.get(1));
+        randWords.remove(0);
+        assertEquals(12, randWords.size());
+    }
+
+    @Test
+    void map_writtenPack(@TempDir Path dir) throws IOException {
+        List<String> words = Arrays.asList("Zürich", "Bern", "Basel", "Genf", "Lugano", "Chur");
+        Path file = dir.resolve("cities.wordpack");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            WordDictionary.write(words, out);
+        }
+
+        WordDictionary pack = WordDictionary.map(file);
+
+        assertEquals(words, pack.getWords());
+        assertEquals(7, pack.getRandomWords(7).size());
+        assertTrue(words.containsAll(pack.getRandomWords(7)));
+    }
+
+    @Test
+    void read_notAWordPack() {
+        ByteBuffer buffer = ByteBuffer.allocate(8).putInt(0, 42);
+
+        assertThrows(IllegalArgumentException.class, () -> WordDictionary.read(buffer));
+    }
+
+    @Test
+    void get_outOfBounds() {
+        assertThrows(IndexOutOfBoundsException.class, () -> dictionary.get(dictionary.size()));
+    }
+}
@@ -0,0 +1,51 @@
+package ch.uzh.ifi.seal.soprafs20.gameLogic;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.WordPermutation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WordPermutationTest {
+
+    @Test
+    void get_everyIndexOnce() {
+        for (int size : new int[]{1, 2, 3, 13, 270, 1000, 4097}) {
+            WordPermutation permutation = new WordPermutation(size, 42L);
+            boolean[] seen = new boolean[size];
+            for (int position = 0; position < size; position++) {
+                int index = permutation.get(position);
+                assertFalse(seen[index], "size " + size);
+                seen[index] = true;
+            }
+        }
+    }
+
+    @Test
+    void get_sameSeed_samePermutation() {
+        assertEquals(positions(new WordPermutation(270, 7L)), positions(new WordPermutation(270, 7L)));
+    }
+
+    @Test
+    void get_otherSeed_otherPermutation() {
+        assertNotEquals(positions(new WordPermutation(270, 7L)), positions(new WordPermutation(270, 8L)));
+    }
+
+    @Test
+    void get_outOfBounds() {
+        WordPermutation permutation = new WordPermutation(13, 1L);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> permutation.get(13));
+        assertThrows(IllegalArgumentException.class, () -> new WordPermutation(0, 1L));
+    }
+
+    private List<Integer> positions(WordPermutation permutation) {
+        List<Integer> indices = new ArrayList<>();
+        for (int position = 0; position < permutation.size(); position++) {
+            indices.add(permutation.get(position));
+        }
+        return indices;
+    }
+}
@@ -1,6 +1,5 @@
 package ch.uzh.ifi.seal.soprafs20.repository;
 
-import ch.uzh.ifi.seal.soprafs20.GameLogic.WordReader;
 import ch.uzh.ifi.seal.soprafs20.GameLogic.GameState;
 import ch.uzh.ifi.seal.soprafs20.entity.Game;
 import ch.uzh.ifi.seal.soprafs20.entity.Player;
@@ -10,6 +9,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -69,14 +69,11 @@ class GameRepositoryIntegrationTest {
 
     @Test
     void createGame_validInput_findById_success() {
-        // Use the Word Reader class to read random words into the game's list of words
-        WordReader reader = new WordReader();
-
         Game newGame = new Game();
         newGame.setLobbyId(3L);
         newGame.setGameState(GameState.PICK_WORD_STATE);
         newGame.setRoundsPlayed(0);
-        newGame.setWords(reader.getRandomWords(13));
+        newGame.setWordIndices(IntStream.range(0, 13).toArray());
 
         entityManager.persist(newGame);
         entityManager.flush();
@@ -89,7 +86,7 @@ class GameRepositoryIntegrationTest {
         assertEquals(actualGame.getLobbyId(), newGame.getLobbyId());
         assertEquals(actualGame.getRoundsPlayed(), newGame.getRoundsPlayed());
         assertEquals(actualGame.getOverallScore(), newGame.getOverallScore());
-        assertEquals(13, actualGame.getWords().size());
+        assertArrayEquals(IntStream.range(0, 13).toArray(), actualGame.getWordIndices());
     }
 
 }
@@ -0,0 +1,102 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotClueCandidatesTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private BotClueCandidates botClueCandidates;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        botClueCandidates.shutdown();
+    }
+
+    private RelatedWordsClient blockingClient() {
+        return word -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of("related");
+        };
+    }
+
+    @Test
+    void get_prefetched_returnsCandidates() {
+        botClueCandidates = new BotClueCandidates(new StubRelatedWordsClient(), new DirectExecutorService());
+        botClueCandidates.prefetch(1L, "tool");
+
+        assertEquals("instrument", botClueCandidates.get(1L, "tool").get(0));
+    }
+
+    @Test
+    void get_prefetchedOtherWord_fetchesWord() {
+        botClueCandidates = new BotClueCandidates(new StubRelatedWordsClient(), new DirectExecutorService());
+        botClueCandidates.prefetch(1L, "tool");
+
+        assertEquals("australian", botClueCandidates.get(1L, "australia").get(0));
+    }
+
+    @Test
+    void get_fetchedBefore_servedFromCacheOnce() {
+        botClueCandidates = new BotClueCandidates(word -> {
+            calls.incrementAndGet();
+            return List.of("related");
+        }, new DirectExecutorService());
+
+        botClueCandidates.get(1L, "tool");
+        botClueCandidates.prefetch(2L, "tool");
+        botClueCandidates.get(2L, "tool");
+
+        assertEquals(1, calls.get());
+        assertEquals(List.of("related"), botClueCandidates.getCached("tool"));
+    }
+
+    @Test
+    void get_fetchPending_returnsWithoutWaiting() {
+        botClueCandidates = new BotClueCandidates(blockingClient());
+        botClueCandidates.prefetch(1L, "tool");
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> assertTrue(botClueCandidates.get(1L, "tool").isEmpty()));
+    }
+
+    @Test
+    void get_fetchPending_cachesCandidatesLater() throws InterruptedException {
+        botClueCandidates = new BotClueCandidates(blockingClient());
+        botClueCandidates.prefetch(1L, "tool");
+        botClueCandidates.get(1L, "tool");
+
+        release.countDown();
+        for (int i = 0; i < 100 && botClueCandidates.getCached("tool").isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(List.of("related"), botClueCandidates.getCached("tool"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void get_fetchFails_returnsNoCandidates() {
+        botClueCandidates = new BotClueCandidates(word -> {
+            throw new IllegalStateException("unavailable");
+        }, new DirectExecutorService());
+
+        assertTrue(botClueCandidates.get(1L, "tool").isEmpty());
+    }
+}
@@ -0,0 +1,82 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class DatamuseClientTest {
+
+    private MockRestServiceServer server;
+
+    private MeterRegistry meterRegistry;
+
+    private DatamuseClient datamuseClient;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        meterRegistry = new SimpleMeterRegistry();
+        datamuseClient = new DatamuseClient(restTemplate, meterRegistry, "http://datamuse", Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getRelatedWords_repeatedWord_requestedOnce() {
+        server.expect(ExpectedCount.once(), requestTo("http://datamuse/words?ml=nuclear+power&max=50"))
+                .andRespond(withSuccess("[{\"word\":\"reactor\",\"score\":100,\"tags\":[\"n\"]},"
+                        + "{\"word\":\"plants\",\"score\":90}]", MediaType.APPLICATION_JSON));
+
+        assertEquals(List.of("reactor", "plants"), datamuseClient.getRelatedWords("nuclear power"));
+        assertEquals(List.of("reactor", "plants"), datamuseClient.getRelatedWords("nuclear power"));
+
+        server.verify();
+        assertEquals(1, meterRegistry.get("datamuse.requests").timer().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void getRelatedWords_fullResponse_readsWords() {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < DatamuseClient.MAX_WORDS; i++) {
+            body.append(i == 0 ? "" : ",")
+                    .append("{\"score\":").append(1000 - i)
+                    .append(",\"tags\":[\"n\",\"f:1.5\"],\"word\":\"word").append(i).append("\"}");
+        }
+        body.append("]");
+        server.expect(requestTo("http://datamuse/words?ml=tool&max=50"))
+                .andRespond(withSuccess(body.toString(), MediaType.APPLICATION_JSON));
+
+        List<String> words = datamuseClient.getRelatedWords("tool");
+
+        assertEquals(DatamuseClient.MAX_WORDS, words.size());
+        assertEquals("word0", words.get(0));
+        assertEquals("word49", words.get(49));
+    }
+
+    @Test
+    void getRelatedWords_noArray_empty() {
+        server.expect(requestTo("http://datamuse/words?ml=tool&max=50"))
+                .andRespond(withSuccess("{\"error\":\"unknown\"}", MediaType.APPLICATION_JSON));
+
+        assertTrue(datamuseClient.getRelatedWords("tool").isEmpty());
+    }
+
+    @Test
+    void getRelatedWords_threeWords_notRequested() {
+        assertTrue(datamuseClient.getRelatedWords("the big apple").isEmpty());
+
+        server.verify();
+    }
+}
@@ -0,0 +1,96 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import ch.uzh.ifi.seal.soprafs20.exceptions.UnauthorizedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameCommandExecutorTest {
+
+    private GameCommandExecutor gameCommandExecutor;
+
+    private ExecutorService requests;
+
+    @BeforeEach
+    void setUp() {
+        gameCommandExecutor = new GameCommandExecutor(2);
+        requests = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        requests.shutdownNow();
+        gameCommandExecutor.shutdown();
+    }
+
+    private static Game game(final long lobbyId) {
+        Game game = new Game();
+        game.setLobbyId(lobbyId);
+        return game;
+    }
+
+    @Test
+    void run_concurrentCommandsOfOneGame_areSerialized() throws Exception {
+        Game game = game(1L);
+        game.setOverallScore(0);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add(requests.submit(() -> gameCommandExecutor.run(game,
+                    () -> game.setOverallScore(game.getOverallScore() + 1))));
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1000, game.getOverallScore());
+    }
+
+    @Test
+    void call_commandThrows_exceptionIsRethrown() {
+        Game game = game(1L);
+
+        assertThrows(UnauthorizedException.class, () -> gameCommandExecutor.call(game, () -> {
+            throw new UnauthorizedException("not allowed");
+        }));
+    }
+
+    @Test
+    void call_nestedCommandOfSameGame_runsInline() {
+        Game game = game(1L);
+
+        int result = gameCommandExecutor.call(game,
+                () -> gameCommandExecutor.call(game, () -> 42));
+
+        assertEquals(42, result);
+    }
+
+    @Test
+    void submit_blockedGame_doesNotBlockGameOfOtherStripe() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherDone = new CountDownLatch(1);
+
+        gameCommandExecutor.submit(game(1L), () -> {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        gameCommandExecutor.submit(game(2L), otherDone::countDown);
+
+        assertTrue(otherDone.await(1, TimeUnit.SECONDS));
+        release.countDown();
+    }
+}
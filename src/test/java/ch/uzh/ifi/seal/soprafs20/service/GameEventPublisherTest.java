@@ -0,0 +1,241 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.GameState;
+import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import ch.uzh.ifi.seal.soprafs20.entity.Player;
+import ch.uzh.ifi.seal.soprafs20.exceptions.NotFoundException;
+import ch.uzh.ifi.seal.soprafs20.exceptions.UnauthorizedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEventPublisherTest {
+
+    private GameScheduler gameScheduler;
+
+    private SimpMessageSendingOperations messaging;
+
+    private VersionRegistry versionRegistry;
+
+    private GameEventPublisher gameEventPublisher;
+
+    private Game game;
+
+    @BeforeEach
+    void setUp() {
+        gameScheduler = Mockito.mock(GameScheduler.class);
+        messaging = Mockito.mock(SimpMessageSendingOperations.class);
+        versionRegistry = new VersionRegistry();
+        ScheduledExecutorService events = Mockito.mock(ScheduledExecutorService.class);
+        Mockito.doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(events).execute(Mockito.any());
+        gameEventPublisher = Mockito.spy(new GameEventPublisher(gameScheduler, messaging, versionRegistry, new ObjectMapper(), events));
+
+        Player guesser = new Player();
+        guesser.setId(1L);
+        guesser.setToken("guesserToken");
+
+        Player player = new Player();
+        player.setId(2L);
+        player.setToken("playerToken");
+
+        game = new Game();
+        game.setLobbyId(1L);
+        game.addPlayer(guesser);
+        game.addPlayer(player);
+        game.setCurrentGuesser(guesser);
+        game.setCurrentWord("banana");
+        game.setGameState(GameState.ENTER_CLUES_STATE);
+    }
+
+    private List<String> sentViews(final String token) {
+        ArgumentCaptor<GameEventPublisher.Subscriber> subscribers =
+                ArgumentCaptor.forClass(GameEventPublisher.Subscriber.class);
+        ArgumentCaptor<String> views = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(gameEventPublisher, Mockito.atLeast(0))
+                .send(subscribers.capture(), Mockito.eq("game"), views.capture());
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < views.getAllValues().size(); i++) {
+            if (subscribers.getAllValues().get(i).getToken().equals(token)) {
+                result.add(views.getAllValues().get(i));
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void subscribe_unknownToken_throwsUnauthorized() {
+        assertThrows(UnauthorizedException.class,
+                () -> gameEventPublisher.subscribe(game, 0, "unknown"));
+        assertEquals(0, gameEventPublisher.getSubscriberCount(1L));
+    }
+
+    @Test
+    void subscribe_validToken_sendsCurrentView() {
+        gameEventPublisher.subscribe(game, 0, "playerToken");
+
+        assertEquals(1, gameEventPublisher.getSubscriberCount(1L));
+        assertEquals(1, sentViews("playerToken").size());
+        assertTrue(sentViews("playerToken").get(0).contains("\"currentWord\":\"banana\""));
+    }
+
+    @Test
+    void changed_guesserView_isRedacted() {
+        gameEventPublisher.subscribe(game, 0, "guesserToken");
+        gameEventPublisher.subscribe(game, 0, "playerToken");
+
+        game.setGameState(GameState.VOTE_ON_CLUES_STATE);
+        gameEventPublisher.changed(game);
+
+        List<String> guesserViews = sentViews("guesserToken");
+        List<String> playerViews = sentViews("playerToken");
+        assertEquals(2, guesserViews.size());
+        assertEquals(2, playerViews.size());
+        assertTrue(guesserViews.get(1).contains("\"currentWord\":null"));
+        assertTrue(playerViews.get(1).contains("\"currentWord\":\"banana\""));
+    }
+
+    @Test
+    void changed_viewUnchanged_isNotSentAgain() {
+        gameEventPublisher.subscribe(game, 0, "playerToken");
+
+        gameEventPublisher.changed(game);
+        gameEventPublisher.changed(game);
+
+        assertEquals(2, sentViews("playerToken").size());
+    }
+
+    @Test
+    void tick_pendingDeadline_sendsRemainingSeconds() {
+        Mockito.when(gameScheduler.getDeadline(1L))
+                .thenReturn(Optional.of(System.currentTimeMillis() + 10500));
+        gameEventPublisher.subscribe(game, 0, "playerToken");
+
+        gameEventPublisher.tick();
+
+        Mockito.verify(gameEventPublisher).send(Mockito.any(), Mockito.eq("timer"), Mockito.eq("10"));
+    }
+
+    @Test
+    void close_endedGame_removesSubscribers() {
+        gameEventPublisher.subscribe(game, 0, "playerToken");
+
+        gameEventPublisher.close(1L);
+
+        assertEquals(0, gameEventPublisher.getSubscriberCount(1L));
+    }
+
+    @Test
+    void changed_stompSubscribers_sendsOneSharedPayloadPerView() {
+        gameEventPublisher.subscribe(1L, 0, "guesserToken", "session1", "sub1");
+        gameEventPublisher.subscribe(1L, 0, "playerToken", "session2", "sub1");
+        gameEventPublisher.subscribe(1L, 0, "playerToken", "session3", "sub1");
+
+        gameEventPublisher.changed(game);
+
+        ArgumentCaptor<Object> guesserView = ArgumentCaptor.forClass(Object.class);
+        ArgumentCaptor<Object> playerView = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(messaging).convertAndSendToUser(Mockito.eq("guesserToken"),
+                Mockito.eq("/queue/lobbies/1/game"), guesserView.capture());
+        Mockito.verify(messaging).convertAndSendToUser(Mockito.eq("playerToken"),
+                Mockito.eq("/queue/lobbies/1/game"), playerView.capture());
+        assertTrue(((String) guesserView.getValue()).contains("\"currentWord\":null"));
+        assertTrue(((String) playerView.getValue()).contains("\"currentWord\":\"banana\""));
+    }
+
+    @Test
+    void changed_stompSubscriberDisconnected_isNotSent() {
+        gameEventPublisher.subscribe(1L, 0, "playerToken", "session1", "sub1");
+
+        gameEventPublisher.onDisconnect(new SessionDisconnectEvent(this,
+                MessageBuilder.withPayload(new byte[0]).build(), "session1", CloseStatus.NORMAL));
+        gameEventPublisher.changed(game);
+
+        assertEquals(0, gameEventPublisher.getSubscriberCount(1L));
+        Mockito.verifyNoInteractions(messaging);
+    }
+
+    @Test
+    void tick_stompSubscribers_broadcastsRemainingSeconds() {
+        Mockito.when(gameScheduler.getDeadline(1L))
+                .thenReturn(Optional.of(System.currentTimeMillis() + 10500));
+        gameEventPublisher.subscribe(1L, 0, "playerToken", "session1", "sub1");
+
+        gameEventPublisher.tick();
+
+        Mockito.verify(messaging).convertAndSend("/topic/lobbies/1/timer", "10");
+    }
+
+    @Test
+    void poll_olderVersion_returnsCurrentViewRightAway() {
+        versionRegistry.gameChanged(1L);
+
+        DeferredResult<ResponseEntity<String>> result =
+                gameEventPublisher.poll(game, 0, "playerToken", 0, 30000);
+
+        ResponseEntity<?> response = (ResponseEntity<?>) result.getResult();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(GameEventPublisher.VERSION_HEADER));
+        assertTrue(((String) response.getBody()).contains("\"currentWord\":\"banana\""));
+    }
+
+    @Test
+    void poll_currentVersion_parkedUntilChanged() {
+        DeferredResult<ResponseEntity<String>> guesserPoll =
+                gameEventPublisher.poll(game, 0, "guesserToken", 0, 30000);
+        DeferredResult<ResponseEntity<String>> playerPoll =
+                gameEventPublisher.poll(game, 0, "playerToken", 0, 30000);
+        assertFalse(guesserPoll.hasResult());
+        assertFalse(playerPoll.hasResult());
+
+        gameEventPublisher.changed(game);
+
+        ResponseEntity<?> guesserResponse = (ResponseEntity<?>) guesserPoll.getResult();
+        ResponseEntity<?> playerResponse = (ResponseEntity<?>) playerPoll.getResult();
+        assertEquals("1", guesserResponse.getHeaders().getFirst(GameEventPublisher.VERSION_HEADER));
+        assertTrue(((String) guesserResponse.getBody()).contains("\"currentWord\":null"));
+        assertTrue(((String) playerResponse.getBody()).contains("\"currentWord\":\"banana\""));
+    }
+
+    @Test
+    void poll_noWaitTime_returnsNotModified() {
+        DeferredResult<ResponseEntity<String>> result =
+                gameEventPublisher.poll(game, 0, "playerToken", 0, 0);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, ((ResponseEntity<?>) result.getResult()).getStatusCode());
+    }
+
+    @Test
+    void poll_gameClosed_completedWithNotFound() {
+        DeferredResult<ResponseEntity<String>> result =
+                gameEventPublisher.poll(game, 0, "playerToken", 0, 30000);
+
+        gameEventPublisher.close(1L);
+
+        assertTrue(result.getResult() instanceof NotFoundException);
+    }
+
+    @Test
+    void poll_unknownToken_throwsUnauthorized() {
+        assertThrows(UnauthorizedException.class,
+                () -> gameEventPublisher.poll(game, 0, "unknown", 0, 30000));
+    }
+}
@@ -0,0 +1,110 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.GameState;
+import ch.uzh.ifi.seal.soprafs20.GameLogic.NLP;
+import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LiveGameStore liveGameStore;
+    private GameScheduler gameScheduler;
+    private GameMetrics gameMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        liveGameStore = new LiveGameStore();
+        gameScheduler = new GameScheduler();
+        gameMetrics = new GameMetrics(meterRegistry, liveGameStore, gameScheduler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameScheduler.shutdown();
+    }
+
+    @Test
+    void stateEntered_beforeDeadline_recordsCompletion() {
+        gameMetrics.stateEntered(1L, GameState.ENTER_CLUES_STATE, 0, 30_000);
+        gameMetrics.stateEntered(1L, GameState.VOTE_ON_CLUES_STATE, 12_000, 27_000);
+
+        Timer completed = stateTimer(GameState.ENTER_CLUES_STATE, GameMetrics.COMPLETED);
+        assertEquals(1, completed.count());
+        assertEquals(12_000, completed.totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(0, stateTimer(GameState.ENTER_CLUES_STATE, GameMetrics.TIMEOUT).count());
+        assertEquals(0.4, meterRegistry.get("game.state.used")
+                .tag("state", GameState.ENTER_CLUES_STATE.name()).summary().mean(), 1e-9);
+    }
+
+    @Test
+    void monitorClueChecks_publishesCacheHits() {
+        NLP nlp = new NLP();
+        gameMetrics.monitorClueChecks(nlp);
+
+        nlp.checkClue("rain", "Umbrella");
+        nlp.checkClue("rain", "Umbrella");
+
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "nlp.results")
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "nlp.results")
+                .tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void stateEntered_atDeadline_recordsTimeout() {
+        gameMetrics.stateEntered(1L, GameState.PICK_WORD_STATE, 0, 10_000);
+        gameMetrics.stateEntered(1L, GameState.ENTER_CLUES_STATE, 10_050, 40_050);
+
+        Timer timeouts = stateTimer(GameState.PICK_WORD_STATE, GameMetrics.TIMEOUT);
+        assertEquals(1, timeouts.count());
+        assertEquals(10_050, timeouts.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void gameEnded_recordsLastState() {
+        long now = System.currentTimeMillis();
+        gameMetrics.stateEntered(1L, GameState.END_GAME_STATE, now - 10_000, now);
+        gameMetrics.gameEnded(1L);
+        gameMetrics.gameEnded(1L);
+
+        assertEquals(1, stateTimer(GameState.END_GAME_STATE, GameMetrics.TIMEOUT).count());
+    }
+
+    @Test
+    void deadlineFired_recordsLateness() {
+        gameMetrics.deadlineFired(1_000, 1_250);
+        gameMetrics.deadlineFired(2_000, 1_990);
+
+        Timer lateness = meterRegistry.get("game.deadline.lateness").timer();
+        assertEquals(2, lateness.count());
+        assertEquals(250, lateness.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void gauges_followLiveGames() {
+        Game game = new Game();
+        game.setLobbyId(1L);
+        liveGameStore.put(game);
+        gameScheduler.schedule(1L, System.currentTimeMillis() + 60_000, () -> { });
+
+        assertEquals(1, meterRegistry.get("game.live").gauge().value());
+        assertEquals(1, meterRegistry.get("game.scheduler.pending").gauge().value());
+    }
+
+    private Timer stateTimer(GameState state, String outcome) {
+        return meterRegistry.get("game.state.duration")
+                .tag("state", state.name())
+                .tag("outcome", outcome)
+                .timer();
+    }
+}
@@ -0,0 +1,127 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSchedulerTest {
+
+    private GameScheduler gameScheduler;
+
+    @BeforeEach
+    void setUp() {
+        gameScheduler = new GameScheduler();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameScheduler.shutdown();
+    }
+
+    private static long now() {
+        return System.currentTimeMillis();
+    }
+
+    @Test
+    void schedule_deadlineFiresOnce() throws InterruptedException {
+        AtomicInteger fired = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        gameScheduler.schedule(1L, now() + 10, () -> {
+            fired.incrementAndGet();
+            latch.countDown();
+        });
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1, fired.get());
+        assertFalse(gameScheduler.isScheduled(1L));
+        assertTrue(gameScheduler.getDeadline(1L).isEmpty());
+    }
+
+    @Test
+    void schedule_pendingDeadline_isExposed() {
+        long deadline = now() + 10000;
+
+        gameScheduler.schedule(1L, deadline, () -> { });
+
+        assertTrue(gameScheduler.isScheduled(1L));
+        assertEquals(deadline, gameScheduler.getDeadline(1L).orElseThrow());
+    }
+
+    @Test
+    void schedule_sameGame_replacesPendingDeadline() throws InterruptedException {
+        AtomicInteger fired = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        gameScheduler.schedule(1L, now() + 50, () -> fired.addAndGet(10));
+        gameScheduler.schedule(1L, now() + 10, () -> {
+            fired.incrementAndGet();
+            latch.countDown();
+        });
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1, fired.get());
+    }
+
+    @Test
+    void cancel_pendingDeadline_doesNotFire() throws InterruptedException {
+        AtomicInteger fired = new AtomicInteger();
+
+        gameScheduler.schedule(1L, now() + 50, fired::incrementAndGet);
+        gameScheduler.cancel(1L);
+        Thread.sleep(150);
+
+        assertEquals(0, fired.get());
+        assertFalse(gameScheduler.isScheduled(1L));
+    }
+
+    @Test
+    void schedule_manyGames_threadCountStaysFlat() throws InterruptedException {
+        CountDownLatch fewGames = new CountDownLatch(10);
+        for (long lobbyId = 0; lobbyId < 10; lobbyId++) {
+            gameScheduler.schedule(lobbyId, now() + 5, fewGames::countDown);
+        }
+        assertTrue(fewGames.await(5, TimeUnit.SECONDS));
+        int threadsWithFewGames = Thread.activeCount();
+
+        CountDownLatch manyGames = new CountDownLatch(5000);
+        for (long lobbyId = 0; lobbyId < 5000; lobbyId++) {
+            gameScheduler.schedule(lobbyId, now() + 5, manyGames::countDown);
+        }
+        assertTrue(manyGames.await(5, TimeUnit.SECONDS));
+
+        assertTrue(gameScheduler.getPoolSize() <= 2);
+        assertTrue(Thread.activeCount() <= threadsWithFewGames);
+    }
+
+    @Test
+    void schedule_thousandsOfDeadlines_poolStaysBounded() throws InterruptedException {
+        AtomicInteger maxActiveThreads = new AtomicInteger();
+        AtomicInteger maxPoolSize = new AtomicInteger();
+        CountDownLatch fired = new CountDownLatch(5000);
+        long deadline = now() + 200;
+        for (long lobbyId = 0; lobbyId < 5000; lobbyId++) {
+            gameScheduler.schedule(lobbyId, deadline + lobbyId % 50, () -> {
+                maxActiveThreads.accumulateAndGet(gameScheduler.getActiveThreads(), Math::max);
+                maxPoolSize.accumulateAndGet(gameScheduler.getPoolSize(), Math::max);
+                fired.countDown();
+            });
+        }
+
+        assertEquals(5000, gameScheduler.getPendingDeadlines());
+        assertTrue(gameScheduler.getPoolSize() <= 2);
+        assertTrue(fired.await(10, TimeUnit.SECONDS));
+        assertTrue(maxActiveThreads.get() <= 2);
+        assertTrue(maxPoolSize.get() <= 2);
+        assertTrue(gameScheduler.getPoolSize() <= 2);
+        assertEquals(0, gameScheduler.getPendingDeadlines());
+    }
+}
@@ -99,7 +99,7 @@ class GameServiceIntegrationTest {
         assertTrue(createdGame.getPlayers().contains(host));
         assertFalse(createdGame.isSpecialGame());
         assertEquals(1, createdGame.getRoundsPlayed());
-        assertEquals(13, createdGame.getWords().size());
+        assertEquals(13, createdGame.getWordIndices().length);
     }
 
     @Test
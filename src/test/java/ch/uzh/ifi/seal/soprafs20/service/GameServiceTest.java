@@ -1,6 +1,6 @@
 package ch.uzh.ifi.seal.soprafs20.service;
 
-import ch.uzh.ifi.seal.soprafs20.GameLogic.WordReader;
+import ch.uzh.ifi.seal.soprafs20.GameLogic.WordDictionary;
 import ch.uzh.ifi.seal.soprafs20.GameLogic.GameState;
 import ch.uzh.ifi.seal.soprafs20.entity.*;
 import ch.uzh.ifi.seal.soprafs20.exceptions.UnauthorizedException;
@@ -10,16 +10,22 @@ import ch.uzh.ifi.seal.soprafs20.rest.dto.GamePostDTO;
 import ch.uzh.ifi.seal.soprafs20.rest.dto.MessagePutDTO;
 import ch.uzh.ifi.seal.soprafs20.rest.dto.RequestPutDTO;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,6 +46,39 @@ class GameServiceTest {
     @Mock
     private LobbyScoreRepository lobbyScoreRepository;
 
+    @Mock
+    private PlayerRepository playerRepository;
+
+    @Spy
+    private GameScheduler gameScheduler = new GameScheduler();
+
+    @Spy
+    private LiveGameStore liveGameStore = new LiveGameStore();
+
+    @Mock
+    private GameWriter gameWriter;
+
+    @Spy
+    private GameCommandExecutor gameCommandExecutor = new GameCommandExecutor(2);
+
+    @Mock
+    private GameEventPublisher gameEventPublisher;
+
+    @Mock
+    private LobbyEventPublisher lobbyEventPublisher;
+
+    @Spy
+    private GameTimers gameTimers = new GameTimers();
+
+    @Spy
+    private BotClueCandidates botClueCandidates = new BotClueCandidates(new StubRelatedWordsClient(), new DirectExecutorService());
+
+    @Spy
+    private WordSampler wordSampler = new WordSampler(new WordPacks("no-wordpacks"));
+
+    @Spy
+    private GameMetrics gameMetrics = new GameMetrics(new SimpleMeterRegistry(), liveGameStore, gameScheduler);
+
     @InjectMocks
     private GameService gameService;
 
@@ -79,6 +118,13 @@ class GameServiceTest {
         Mockito.when(gameRepository.save(Mockito.any())).thenReturn(testGame);
     }
 
+    @AfterEach
+    void tearDown() {
+        gameScheduler.shutdown();
+        gameCommandExecutor.shutdown();
+        botClueCandidates.shutdown();
+    }
+
     @Test
     public void getGame_validInput_success() {
         Game game = gameService.getGame(testGame.getLobbyId());
@@ -90,6 +136,34 @@ class GameServiceTest {
         assertEquals(testGame.getCurrentGuesser(), game.getCurrentGuesser());
     }
 
+    @Test
+    void getGame_runningGame_servedFromStore() {
+        Game game = gameService.getGame(testGame.getLobbyId());
+        Mockito.reset(gameRepository);
+
+        assertSame(game, gameService.getGame(testGame.getLobbyId()));
+        Mockito.verifyNoInteractions(gameRepository);
+    }
+
+    @Test
+    void sendClue_normalGame_noSynchronousWrite() {
+        testGame.setGameState(GameState.ENTER_CLUES_STATE);
+        testGame.setSpecialGame(false);
+        testGame.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+        testGame.setCurrentWord("wars");
+
+        CluePutDTO cluePutDTO = new CluePutDTO();
+        cluePutDTO.setPlayerId(player2.getId());
+        cluePutDTO.setPlayerToken(player2.getToken());
+        cluePutDTO.setMessage("star");
+
+        gameService.sendClue(testGame, player2, cluePutDTO);
+
+        Mockito.verify(gameRepository, Mockito.never()).saveAndFlush(Mockito.any());
+        Mockito.verify(clueRepository, Mockito.never()).saveAndFlush(Mockito.any());
+        Mockito.verifyNoInteractions(gameWriter);
+    }
+
     @Test
     public void create_Game_validInput_success() {
         testLobby.setCurrentNumBots(0);
@@ -104,6 +178,81 @@ class GameServiceTest {
         assertEquals(testLobby.getLobbyId(), game.getLobbyId());
         assertTrue(game.getPlayers().contains(testHost));
         assertEquals(0, game.getRoundsPlayed());
+        assertEquals(13, testLobby.getWordCursor());
+        ArgumentCaptor<Game> saved = ArgumentCaptor.forClass(Game.class);
+        Mockito.verify(gameRepository).save(saved.capture());
+        assertEquals(13, saved.getValue().getWordIndices().length);
+    }
+
+    @Test
+    void createGame_afterEndedGameWasRead_replacesEndedGame() throws InterruptedException {
+        testLobby.setCurrentNumBots(0);
+        GamePostDTO gamePostDTO = new GamePostDTO();
+        gamePostDTO.setHostId(testHost.getId());
+        gamePostDTO.setHostToken(testHost.getToken());
+        Game endedGame = gameService.createGame(testLobby, gamePostDTO);
+        endedGame.setGameState(GameState.END_GAME_STATE);
+        endedGame.setStartTimeSeconds(0);
+
+        gameService.timer(endedGame);
+        Thread.sleep(1000);
+
+        // the results are not stored yet, so the game is still in the database
+        Mockito.verify(gameWriter).finish(Mockito.eq(endedGame), Mockito.any(), Mockito.any());
+        assertSame(endedGame, gameService.getGame(testLobby.getLobbyId()));
+        assertFalse(liveGameStore.get(testLobby.getLobbyId()).isPresent());
+
+        testLobby.setGameIsStarted(false);
+        Mockito.when(gameRepository.save(Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
+        Game newGame = gameService.createGame(testLobby, gamePostDTO);
+
+        assertNotSame(endedGame, newGame);
+        assertEquals(GameState.PICK_WORD_STATE, newGame.getGameState());
+        assertSame(newGame, gameService.getGame(testLobby.getLobbyId()));
+    }
+
+    @Test
+    void endGame_afterResultsAreStored_lobbyIsBroadcast() throws InterruptedException {
+        testLobby.setCurrentNumBots(0);
+        GamePostDTO gamePostDTO = new GamePostDTO();
+        gamePostDTO.setHostId(testHost.getId());
+        gamePostDTO.setHostToken(testHost.getToken());
+        Game endedGame = gameService.createGame(testLobby, gamePostDTO);
+        endedGame.setGameState(GameState.END_GAME_STATE);
+        endedGame.setStartTimeSeconds(0);
+        testLobby.setGameIsStarted(true);
+        Mockito.when(lobbyRepository.findByLobbyId(testLobby.getLobbyId())).thenReturn(Optional.of(testLobby));
+
+        gameService.timer(endedGame);
+        Thread.sleep(1000);
+
+        ArgumentCaptor<Runnable> work = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Runnable> afterCommit = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(gameWriter).finish(Mockito.eq(endedGame), work.capture(), afterCommit.capture());
+        Mockito.verifyNoInteractions(lobbyEventPublisher);
+
+        work.getValue().run();
+        afterCommit.getValue().run();
+
+        assertFalse(testLobby.isGameStarted());
+        Mockito.verify(lobbyEventPublisher).lobbyChanged(testLobby);
+    }
+
+    @Test
+    void createGame_endedGameInStore_replaced() {
+        Game endedGame = new Game();
+        endedGame.setLobbyId(testLobby.getLobbyId());
+        endedGame.setGameState(GameState.END_GAME_STATE);
+        liveGameStore.put(endedGame);
+        testLobby.setCurrentNumBots(0);
+        GamePostDTO gamePostDTO = new GamePostDTO();
+        gamePostDTO.setHostId(testHost.getId());
+        gamePostDTO.setHostToken(testHost.getToken());
+
+        Game newGame = gameService.createGame(testLobby, gamePostDTO);
+
+        assertSame(testGame, newGame);
+        assertSame(testGame, liveGameStore.get(testLobby.getLobbyId()).orElseThrow());
     }
 
     @Test
@@ -112,7 +261,6 @@ class GameServiceTest {
         testGame.setSpecialGame(false);
         testGame.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
         testGame.setCurrentWord("wars");
-        testGame.setTimer(new InternalTimer());
 
         CluePutDTO cluePutDTO = new CluePutDTO();
         cluePutDTO.setPlayerId(player2.getId());
@@ -138,7 +286,6 @@ class GameServiceTest {
         testGame.setSpecialGame(false);
         testGame.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
         testGame.setCurrentWord("wars");
-        testGame.setTimer(new InternalTimer());
         testGame.addPlayer(player3);
 
         CluePutDTO cluePutDTO = new CluePutDTO();
@@ -232,7 +379,6 @@ class GameServiceTest {
         testGame.setSpecialGame(true);
         testGame.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
         testGame.setCurrentWord("yoda");
-        testGame.setTimer(new InternalTimer());
 
         Clue enteredClue1 = new Clue();
         enteredClue1.setPlayerId(2L);
@@ -265,7 +411,6 @@ class GameServiceTest {
         testGame.setSpecialGame(false);
         testGame.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
         testGame.setCurrentWord("tool");
-        testGame.setTimer(new InternalTimer());
 
         CluePutDTO cluePutDTO = new CluePutDTO();
         cluePutDTO.setPlayerId(player2.getId());
@@ -275,7 +420,7 @@ class GameServiceTest {
         Clue clue = new Clue();
         clue.setActualClue("star");
 
-        Mockito.when(lobbyRepository.findByLobbyId(Mockito.anyLong())).thenReturn(java.util.Optional.of(lobby));
+        Mockito.when(lobbyRepository.findCurrentNumBotsByLobbyId(Mockito.anyLong())).thenReturn(java.util.Optional.of(lobby.getCurrentNumBots()));
 
         gameService.sendClue(testGame, player2, cluePutDTO);
 
@@ -286,21 +431,20 @@ class GameServiceTest {
 
     @Test
     void pickWord_validInput_success() {
-        List<String> someWordAsList = new ArrayList<>();
-        someWordAsList.add("Erdbeermarmeladebrot");
-        testGame.setWords(someWordAsList);
+        testGame.setWordIndices(new int[]{7, 3});
+        String word = WordDictionary.getInstance().get(3).toLowerCase();
 
         gameService.pickWord(testHost.getToken(), testGame);
 
-        assertEquals("erdbeermarmeladebrot", testGame.getCurrentWord());
+        assertEquals(word, testGame.getCurrentWord());
+        assertArrayEquals(new int[]{7}, testGame.getWordIndices());
         assertEquals(GameState.ENTER_CLUES_STATE, testGame.getGameState());
+        Mockito.verify(botClueCandidates).prefetch(testGame.getLobbyId(), word);
     }
 
     @Test
     public void pickWord_unauthorizedUser() {
-        List<String> someWordAsList = new ArrayList<>();
-        someWordAsList.add("Erdbeermarmeladebrot");
-        testGame.setWords(someWordAsList);
+        testGame.setWordIndices(new int[]{3});
 
         assertThrows(UnauthorizedException.class,()->{ gameService.pickWord("someToken", testGame); });
     }
@@ -442,8 +586,9 @@ class GameServiceTest {
         clue2.setActualClue("Banana");
         testGame.addClue(clue1);
         testGame.addClue(clue2);
-        testGame.addInvalidClue(clue2);
-        testGame.addInvalidClue(clue2);
+        testGame.openVotes();
+        testGame.addVote(clue2.getActualClue());
+        testGame.addVote(clue2.getActualClue());
 
         gameService.checkVotes(testGame, 2);
 
@@ -482,8 +627,9 @@ class GameServiceTest {
 
         testGame.addClue(clue1);
         testGame.addClue(clue2);
-        testGame.addInvalidClue(clue1);
-        testGame.addInvalidClue(clue2);
+        testGame.openVotes();
+        testGame.addVote(clue1.getActualClue());
+        testGame.addVote(clue2.getActualClue());
 
         gameService.checkVotes(testGame, 2);
 
@@ -501,9 +647,10 @@ class GameServiceTest {
         clue2.setActualClue("Banana");
         testGame.addClue(clue1);
         testGame.addClue(clue2);
-        testGame.addInvalidClue(clue2);
-        testGame.addInvalidClue(clue2);
-        testGame.addInvalidClue(clue1);
+        testGame.openVotes();
+        testGame.addVote(clue2.getActualClue());
+        testGame.addVote(clue2.getActualClue());
+        testGame.addVote(clue1.getActualClue());
 
         gameService.checkVotes(testGame, 2);
 
@@ -522,10 +669,11 @@ class GameServiceTest {
         clue2.setActualClue("Banana");
         testGame.addClue(clue1);
         testGame.addClue(clue2);
-        testGame.addInvalidClue(clue2);
-        testGame.addInvalidClue(clue2);
-        testGame.addInvalidClue(clue1);
-        testGame.addInvalidClue(clue1);
+        testGame.openVotes();
+        testGame.addVote(clue2.getActualClue());
+        testGame.addVote(clue2.getActualClue());
+        testGame.addVote(clue1.getActualClue());
+        testGame.addVote(clue1.getActualClue());
 
         gameService.checkVotes(testGame, 2);
 
@@ -534,6 +682,29 @@ class GameServiceTest {
         assertTrue(testGame.getInvalidClues().contains(clue1));
     }
 
+    @Test
+    void checkVote_votesIgnoreCase() {
+        Clue clue1 = new Clue();
+        clue1.setPlayerId(1L);
+        clue1.setActualClue("Apple");
+        Clue clue2 = new Clue();
+        clue2.setPlayerId(2L);
+        clue2.setActualClue("Banana");
+        testGame.addClue(clue1);
+        testGame.addClue(clue2);
+        testGame.openVotes();
+        testGame.addVote("BANANA");
+        testGame.addVote("banana");
+        testGame.addVote("apple");
+
+        gameService.checkVotes(testGame, 2);
+
+        assertTrue(testGame.getEnteredClues().contains(clue1));
+        assertFalse(testGame.getEnteredClues().contains(clue2));
+        assertEquals(1, testGame.getInvalidClues().size());
+        assertTrue(testGame.getInvalidClues().contains(clue2));
+    }
+
     @Test
     public void test_MathCeil() {
         int amountOfGuessers = 3;
@@ -572,10 +743,7 @@ class GameServiceTest {
         testGame.setCurrentGuesser(player1);
         testGame.setRoundsPlayed(1);
         testGame.setStartTimeSeconds(0);
-        WordReader reader = new WordReader();
-        testGame.setWords(reader.getRandomWords(13));
-        testGame.setTimer(new InternalTimer());
-        testGame.getTimer().setCancel(false);
+        testGame.setWordIndices(IntStream.range(0, 13).toArray());
         testGame.setTime(10);
         gameService.timer(testGame);
         Thread.sleep(1000);
@@ -609,10 +777,7 @@ class GameServiceTest {
         testGame.setRoundsPlayed(1);
         testGame.setStartTimeSeconds(0);
         testGame.addClue(clue);
-        WordReader reader = new WordReader();
-        testGame.setWords(reader.getRandomWords(13));
-        testGame.setTimer(new InternalTimer());
-        testGame.getTimer().setCancel(false);
+        testGame.setWordIndices(IntStream.range(0, 13).toArray());
         testGame.setTime(10);
         gameService.timer(testGame);
         Thread.sleep(1000);
@@ -647,10 +812,7 @@ class GameServiceTest {
         testGame.setRoundsPlayed(1);
         testGame.setStartTimeSeconds(0);
         testGame.addClue(clue);
-        WordReader reader = new WordReader();
-        testGame.setWords(reader.getRandomWords(13));
-        testGame.setTimer(new InternalTimer());
-        testGame.getTimer().setCancel(false);
+        testGame.setWordIndices(IntStream.range(0, 13).toArray());
         testGame.setTime(15);
         gameService.timer(testGame);
         Thread.sleep(1000);
@@ -684,10 +846,7 @@ class GameServiceTest {
         testGame.setRoundsPlayed(1);
         testGame.setStartTimeSeconds(0);
         testGame.addClue(clue);
-        WordReader reader = new WordReader();
-        testGame.setWords(reader.getRandomWords(13));
-        testGame.setTimer(new InternalTimer());
-        testGame.getTimer().setCancel(false);
+        testGame.setWordIndices(IntStream.range(0, 13).toArray());
         testGame.setTime(15);
         gameService.timer(testGame);
         Thread.sleep(1000);
@@ -728,10 +887,7 @@ class GameServiceTest {
         testGame.setRoundsPlayed(1);
         testGame.setStartTimeSeconds(0);
         testGame.addClue(clue);
-        WordReader reader = new WordReader();
-        testGame.setWords(reader.getRandomWords(13));
-        testGame.setTimer(new InternalTimer());
-        testGame.getTimer().setCancel(false);
+        testGame.setWordIndices(IntStream.range(0, 13).toArray());
 
         Mockito.when(lobbyRepository.findByLobbyId(1L)).thenReturn(java.util.Optional.of(lobby));
 
@@ -779,10 +935,7 @@ class GameServiceTest {
         testGame.setCurrentGuesser(player1);
         testGame.setRoundsPlayed(1);
         testGame.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())));
-        WordReader reader = new WordReader();
-        testGame.setWords(reader.getRandomWords(13));
-        testGame.setTimer(new InternalTimer());
-        testGame.getTimer().setCancel(false);
+        testGame.setWordIndices(IntStream.range(0, 13).toArray());
         testGame.setTime(5);
 
         Mockito.when(userRepository.findById(player1.getId())).thenReturn(java.util.Optional.of(user1));
@@ -834,8 +987,6 @@ class GameServiceTest {
         testGame.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())));
 
 
-        testGame.setTimer(new InternalTimer());
-        testGame.getTimer().setCancel(false);
         testGame.setTime(10);
 
         Mockito.when(userRepository.findById(player1.getId())).thenReturn(java.util.Optional.of(user1));
@@ -886,10 +1037,7 @@ class GameServiceTest {
         testGame.setCurrentGuesser(player1);
         testGame.setRoundsPlayed(4);
         testGame.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())));
-        WordReader reader = new WordReader();
-        testGame.setWords(reader.getRandomWords(13));
-        testGame.setTimer(new InternalTimer());
-        testGame.getTimer().setCancel(false);
+        testGame.setWordIndices(IntStream.range(0, 13).toArray());
         testGame.setTime(10);
 
         Mockito.when(lobbyRepository.findByLobbyId(testGame.getLobbyId())).thenReturn(java.util.Optional.of(lobby));
@@ -927,23 +1075,43 @@ class GameServiceTest {
 
 
         testGame.setLobbyId(1L);
-        testGame.setGameState(GameState.ENTER_CLUES_STATE);
+        testGame.setGameState(GameState.PICK_WORD_STATE);
         testGame.setLobbyName("Test");
         testGame.addPlayer(player1);
         testGame.addPlayer(player2);
         testGame.setCurrentGuesser(player1);
         testGame.setRoundsPlayed(1);
-        testGame.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())));
-        testGame.setTimer(new InternalTimer());
-        testGame.getTimer().setCancel(true);
+        testGame.setStartTimeSeconds(0);
         testGame.setTime(3);
 
         Mockito.when(gameRepository.findByLobbyId(testGame.getLobbyId())).thenReturn(java.util.Optional.ofNullable(testGame));
 
-        gameService.timer(testGame);
-//        Thread.sleep(1*1000);
+        gameService.enterState(testGame, GameState.ENTER_CLUES_STATE);
 
         assertEquals(GameState.ENTER_CLUES_STATE, testGame.getGameState());
+        assertTrue(testGame.getStartTimeSeconds() > 0);
+        assertTrue(gameScheduler.getDeadline(testGame.getLobbyId()).orElseThrow() > System.currentTimeMillis());
+        Mockito.verify(gameWriter).persist(testGame);
+    }
+
+    @Test
+    void enterState_runningGame_deadlinePublished() {
+        Player player1 = new Player();
+        player1.setId(1L);
+        player1.setToken("testToken");
+
+        testGame.setLobbyId(1L);
+        testGame.setGameState(GameState.PICK_WORD_STATE);
+        testGame.addPlayer(player1);
+        testGame.setCurrentGuesser(player1);
+        testGame.setRoundsPlayed(1);
+        gameTimers.track(testGame);
+
+        gameService.enterState(testGame, GameState.ENTER_CLUES_STATE);
+
+        assertEquals(gameScheduler.getDeadline(testGame.getLobbyId()).orElseThrow(), testGame.getDeadline());
+        assertTrue(gameTimers.getRemainingSeconds(testGame.getLobbyId(), "testToken").getAsLong() > 0);
+        Mockito.verify(gameEventPublisher).changed(testGame);
     }
 
     @Test
@@ -974,11 +1142,9 @@ class GameServiceTest {
         testGame.setCurrentWord("tool");
         testGame.setRoundsPlayed(1);
         testGame.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())));
-        testGame.setTimer(new InternalTimer());
-        testGame.getTimer().setCancel(true);
         testGame.setTime(3);
 
-        Mockito.when(lobbyRepository.findByLobbyId(Mockito.anyLong())).thenReturn(java.util.Optional.of(lobby));
+        Mockito.when(lobbyRepository.findCurrentNumBotsByLobbyId(Mockito.anyLong())).thenReturn(java.util.Optional.of(lobby.getCurrentNumBots()));
 
         gameService.generateCluesForBots(testGame);
 
@@ -1016,11 +1182,9 @@ class GameServiceTest {
         testGame.addClue(clue);
         testGame.setRoundsPlayed(1);
         testGame.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())));
-        testGame.setTimer(new InternalTimer());
-        testGame.getTimer().setCancel(true);
         testGame.setTime(3);
 
-        Mockito.when(lobbyRepository.findByLobbyId(Mockito.anyLong())).thenReturn(java.util.Optional.of(lobby));
+        Mockito.when(lobbyRepository.findCurrentNumBotsByLobbyId(Mockito.anyLong())).thenReturn(java.util.Optional.of(lobby.getCurrentNumBots()));
 
         gameService.generateCluesForBots(testGame);
 
@@ -1058,11 +1222,9 @@ class GameServiceTest {
         testGame.addClue(clue);
         testGame.setRoundsPlayed(1);
         testGame.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())));
-        testGame.setTimer(new InternalTimer());
-        testGame.getTimer().setCancel(true);
         testGame.setTime(3);
 
-        Mockito.when(lobbyRepository.findByLobbyId(Mockito.anyLong())).thenReturn(java.util.Optional.of(lobby));
+        Mockito.when(lobbyRepository.findCurrentNumBotsByLobbyId(Mockito.anyLong())).thenReturn(java.util.Optional.of(lobby.getCurrentNumBots()));
 
         gameService.generateCluesForBots(testGame);
 
@@ -1100,11 +1262,9 @@ class GameServiceTest {
         testGame.addClue(clue);
         testGame.setRoundsPlayed(1);
         testGame.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())));
-        testGame.setTimer(new InternalTimer());
-        testGame.getTimer().setCancel(true);
         testGame.setTime(3);
 
-        Mockito.when(lobbyRepository.findByLobbyId(Mockito.anyLong())).thenReturn(java.util.Optional.of(lobby));
+        Mockito.when(lobbyRepository.findCurrentNumBotsByLobbyId(Mockito.anyLong())).thenReturn(java.util.Optional.of(lobby.getCurrentNumBots()));
 
         gameService.generateCluesForBots(testGame);
 
@@ -1141,11 +1301,9 @@ class GameServiceTest {
         testGame.addClue(clue);
         testGame.setRoundsPlayed(1);
         testGame.setStartTimeSeconds(TimeUnit.MILLISECONDS.toSeconds(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())));
-        testGame.setTimer(new InternalTimer());
-        testGame.getTimer().setCancel(true);
         testGame.setTime(3);
 
-        Mockito.when(lobbyRepository.findByLobbyId(Mockito.anyLong())).thenReturn(java.util.Optional.of(lobby));
+        Mockito.when(lobbyRepository.findCurrentNumBotsByLobbyId(Mockito.anyLong())).thenReturn(java.util.Optional.of(lobby.getCurrentNumBots()));
 
         gameService.generateCluesForBots(testGame);
 
@@ -1197,7 +1355,6 @@ class GameServiceTest {
         testGame.addClue(clue3);
         testGame.addClue(clue4);
         testGame.setRoundsPlayed(1);
-        testGame.setTimer(new InternalTimer());
         testGame.setGuessCorrect(true);
 
 
@@ -1256,7 +1413,6 @@ class GameServiceTest {
         testGame.addClue(clue3);
         testGame.addClue(clue4);
         testGame.setRoundsPlayed(1);
-        testGame.setTimer(new InternalTimer());
         testGame.setOverallScore(110);
         testGame.setGuessCorrect(false);
 
@@ -1316,7 +1472,6 @@ class GameServiceTest {
         testGame.addClue(clue3);
         testGame.addClue(clue4);
         testGame.setRoundsPlayed(1);
-        testGame.setTimer(new InternalTimer());
         testGame.setOverallScore(110);
         testGame.setSpecialGame(true);
         testGame.setGuessCorrect(false);
@@ -1376,7 +1531,6 @@ class GameServiceTest {
         testGame.addClue(clue3);
         testGame.addClue(clue4);
         testGame.setRoundsPlayed(1);
-        testGame.setTimer(new InternalTimer());
         testGame.setSpecialGame(true);
         testGame.setGuessCorrect(true);
 
@@ -1440,14 +1594,18 @@ class GameServiceTest {
         testGame.addClue(clue3);
         testGame.addClue(clue4);
         testGame.setRoundsPlayed(1);
-        testGame.setTimer(new InternalTimer());
         testGame.setSpecialGame(true);
         testGame.setGuessCorrect(true);
+        gameService.enterState(testGame, GameState.VOTE_ON_CLUES_STATE);
         List<String> invalidWords = new ArrayList<>();
+        invalidWords.add("ZOMBIES");
         invalidWords.add("zombie");
 
         assertTrue(gameService.vote(testGame,player3,invalidWords));
         assertTrue(player3.isVoted());
+        assertEquals(1, testGame.getVotes("zombies"));
+        assertEquals(0, testGame.getVotes("plants"));
+        assertEquals(0, testGame.getVotes("zombie"));
     }
 
     @Test
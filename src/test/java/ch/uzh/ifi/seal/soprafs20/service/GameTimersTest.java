@@ -0,0 +1,67 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import ch.uzh.ifi.seal.soprafs20.entity.Player;
+import ch.uzh.ifi.seal.soprafs20.exceptions.NotFoundException;
+import ch.uzh.ifi.seal.soprafs20.exceptions.UnauthorizedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameTimersTest {
+
+    private GameTimers gameTimers;
+
+    @BeforeEach
+    void setUp() {
+        Player player = new Player();
+        player.setId(1L);
+        player.setToken("playerToken");
+
+        Game game = new Game();
+        game.setLobbyId(1L);
+        game.addPlayer(player);
+
+        gameTimers = new GameTimers();
+        gameTimers.track(game);
+    }
+
+    @Test
+    void getRemainingSeconds_noDeadline_empty() {
+        assertFalse(gameTimers.getRemainingSeconds(1L, "playerToken").isPresent());
+    }
+
+    @Test
+    void getRemainingSeconds_pendingDeadline_roundedUp() {
+        gameTimers.setDeadline(1L, System.currentTimeMillis() + 9500, false);
+
+        assertEquals(10, gameTimers.getRemainingSeconds(1L, "playerToken").getAsLong());
+    }
+
+    @Test
+    void getRemainingSeconds_passedDeadline_zero() {
+        gameTimers.setDeadline(1L, System.currentTimeMillis() - 5000, false);
+
+        assertEquals(0, gameTimers.getRemainingSeconds(1L, "playerToken").getAsLong());
+    }
+
+    @Test
+    void getRemainingSeconds_endState_zero() {
+        gameTimers.setDeadline(1L, System.currentTimeMillis() + 10000, true);
+
+        assertEquals(0, gameTimers.getRemainingSeconds(1L, "playerToken").getAsLong());
+    }
+
+    @Test
+    void getRemainingSeconds_unknownToken_throwsUnauthorized() {
+        assertThrows(UnauthorizedException.class, () -> gameTimers.getRemainingSeconds(1L, "unknown"));
+    }
+
+    @Test
+    void getRemainingSeconds_removedGame_throwsNotFound() {
+        gameTimers.remove(1L);
+
+        assertThrows(NotFoundException.class, () -> gameTimers.getRemainingSeconds(1L, "playerToken"));
+    }
+}
@@ -0,0 +1,112 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.entity.Clue;
+import ch.uzh.ifi.seal.soprafs20.entity.Game;
+import ch.uzh.ifi.seal.soprafs20.entity.Player;
+import ch.uzh.ifi.seal.soprafs20.repository.ClueRepository;
+import ch.uzh.ifi.seal.soprafs20.repository.GameRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameWriterTest {
+
+    @Mock
+    private GameRepository gameRepository;
+
+    @Mock
+    private ClueRepository clueRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Runnable> queued = new ArrayList<>();
+
+    private final VersionRegistry versionRegistry = new VersionRegistry();
+
+    private GameWriter gameWriter;
+
+    private Game game;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        gameWriter = new GameWriter(gameRepository, clueRepository,
+                versionRegistry, transactionManager, queued::add);
+
+        Player player = new Player();
+        player.setId(1L);
+
+        game = new Game();
+        game.setLobbyId(1L);
+        game.addPlayer(player);
+    }
+
+    private void runQueued() {
+        List<Runnable> tasks = new ArrayList<>(queued);
+        queued.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    @Test
+    void persist_sameGameTwice_writtenOnceInOneBatch() {
+        Game otherGame = new Game();
+        otherGame.setLobbyId(2L);
+
+        gameWriter.persist(game);
+        gameWriter.persist(game);
+        gameWriter.persist(otherGame);
+        assertEquals(1, queued.size());
+        runQueued();
+
+        Mockito.verify(gameRepository, Mockito.times(1)).save(game);
+        Mockito.verify(gameRepository, Mockito.times(1)).save(otherGame);
+        Mockito.verify(transactionManager, Mockito.times(1)).getTransaction(Mockito.any());
+    }
+
+    @Test
+    void persist_batchWritten_changesLobbyVersion() {
+        String eTag = versionRegistry.getLobbyETag(1L);
+
+        gameWriter.persist(game);
+        assertEquals(eTag, versionRegistry.getLobbyETag(1L));
+        runQueued();
+
+        assertNotEquals(eTag, versionRegistry.getLobbyETag(1L));
+    }
+
+    @Test
+    void persist_newClues_persistedBeforeGame() {
+        Clue clue = new Clue();
+        clue.setActualClue("star");
+        game.addClue(clue);
+
+        gameWriter.persist(game);
+        runQueued();
+
+        InOrder inOrder = Mockito.inOrder(clueRepository, gameRepository);
+        inOrder.verify(clueRepository).save(clue);
+        inOrder.verify(gameRepository).save(game);
+    }
+
+    @Test
+    void finish_pendingWrite_isDropped() {
+        List<Game> finished = new ArrayList<>();
+
+        gameWriter.persist(game);
+        gameWriter.finish(game, () -> finished.add(game), () -> finished.add(game));
+        runQueued();
+
+        Mockito.verify(gameRepository, Mockito.never()).save(Mockito.any());
+        assertEquals(2, finished.size());
+    }
+}
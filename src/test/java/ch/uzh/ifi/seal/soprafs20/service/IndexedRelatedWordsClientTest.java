@@ -0,0 +1,52 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.RelatedWordsIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedRelatedWordsClientTest {
+
+    private RelatedWordsIndex index;
+
+    private RelatedWordsClient remote;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RelatedWordsIndex.write(Map.of("sheep", List.of("ewe", "ram")), out);
+        index = RelatedWordsIndex.read(new ByteArrayInputStream(out.toByteArray()));
+        remote = Mockito.mock(RelatedWordsClient.class);
+        Mockito.when(remote.getRelatedWords("mario")).thenReturn(List.of("plumber"));
+    }
+
+    @Test
+    void getRelatedWords_indexed_noRemoteCall() {
+        IndexedRelatedWordsClient client = new IndexedRelatedWordsClient(index, remote);
+
+        assertEquals(List.of("ewe", "ram"), client.getRelatedWords("Sheep"));
+        Mockito.verifyNoInteractions(remote);
+    }
+
+    @Test
+    void getRelatedWords_notIndexed_remoteFallback() {
+        IndexedRelatedWordsClient client = new IndexedRelatedWordsClient(index, remote);
+
+        assertEquals(List.of("plumber"), client.getRelatedWords("mario"));
+    }
+
+    @Test
+    void getRelatedWords_notIndexedFallbackDisabled_empty() {
+        IndexedRelatedWordsClient client = new IndexedRelatedWordsClient(index, null);
+
+        assertTrue(client.getRelatedWords("mario").isEmpty());
+    }
+}
@@ -3,6 +3,7 @@ package ch.uzh.ifi.seal.soprafs20.service;
 import ch.uzh.ifi.seal.soprafs20.entity.Lobby;
 import ch.uzh.ifi.seal.soprafs20.entity.Player;
 import ch.uzh.ifi.seal.soprafs20.exceptions.ConflictException;
+import ch.uzh.ifi.seal.soprafs20.exceptions.NotFoundException;
 import ch.uzh.ifi.seal.soprafs20.exceptions.UnauthorizedException;
 import ch.uzh.ifi.seal.soprafs20.repository.LobbyRepository;
 import ch.uzh.ifi.seal.soprafs20.repository.PlayerRepository;
@@ -13,6 +14,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -23,6 +25,8 @@ class LobbyServiceTest {
     private LobbyRepository lobbyRepository;
     @Mock
     private PlayerRepository playerRepository;
+    @Spy
+    private WordPacks wordPacks = new WordPacks("no-wordpacks");
 
     @InjectMocks
     private LobbyService lobbyService;
@@ -94,6 +98,40 @@ class LobbyServiceTest {
         assertEquals(3,lobby.getMaxPlayersAndBots());
     }
 
+    @Test
+    void updateExistingLobby_wordPack(){
+        LobbyPutDTO lobbyPutDTO = new LobbyPutDTO();
+        lobbyPutDTO.setWordPack(WordPacks.DEFAULT_PACK);
+        lobbyPutDTO.setHostToken("1");
+
+        Lobby lobby = lobbyService.updateLobby(testLobby,lobbyPutDTO);
+
+        assertEquals(WordPacks.DEFAULT_PACK,lobby.getWordPack());
+    }
+
+    @Test
+    void updateExistingLobby_otherWordPack_restartsWords(){
+        testLobby.setWordSeed(42L);
+        testLobby.setWordCursor(13);
+        LobbyPutDTO lobbyPutDTO = new LobbyPutDTO();
+        lobbyPutDTO.setWordPack(WordPacks.DEFAULT_PACK);
+        lobbyPutDTO.setHostToken("1");
+
+        Lobby lobby = lobbyService.updateLobby(testLobby,lobbyPutDTO);
+
+        assertNull(lobby.getWordSeed());
+    }
+
+    @Test
+    void updateExistingLobby_unknownWordPack(){
+        LobbyPutDTO lobbyPutDTO = new LobbyPutDTO();
+        lobbyPutDTO.setWordPack("animals");
+        lobbyPutDTO.setHostToken("1");
+
+        assertThrows(NotFoundException.class,()->{lobbyService.updateLobby(testLobby,lobbyPutDTO);});
+        assertNull(testLobby.getWordPack());
+    }
+
     @Test
     void updateExistingLobby_unauthorizedUser(){
         testLobby.setPrivate(false);
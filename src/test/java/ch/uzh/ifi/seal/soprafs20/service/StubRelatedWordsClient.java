@@ -0,0 +1,21 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers with fixed related words instead of calling the Datamuse API.
+ */
+class StubRelatedWordsClient implements RelatedWordsClient {
+
+    private static final Map<String, List<String>> RELATED_WORDS = Map.of(
+            "tool", List.of("instrument", "prick", "implement", "creature", "puppet"),
+            "australia", List.of("australian", "canada", "commonwealth", "oceania"),
+            "nuclear power", List.of("nuclear energy", "plants", "reactor", "atomic"));
+
+    @Override
+    public List<String> getRelatedWords(String word) {
+        return RELATED_WORDS.getOrDefault(word, Collections.emptyList());
+    }
+}
@@ -0,0 +1,66 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.WordDictionary;
+import ch.uzh.ifi.seal.soprafs20.exceptions.NotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WordPacksTest {
+
+    @Test
+    void noDirectory_onlyDefaultPack() {
+        WordPacks wordPacks = new WordPacks("no-wordpacks");
+
+        assertEquals(List.of(WordPacks.DEFAULT_PACK), List.copyOf(wordPacks.getNames()));
+        assertSame(WordDictionary.getInstance(), wordPacks.get(null));
+        assertSame(WordDictionary.getInstance(), wordPacks.get(WordPacks.DEFAULT_PACK));
+    }
+
+    @Test
+    void directory_packsByFileName(@TempDir Path dir) throws IOException {
+        List<String> animals = Arrays.asList("Dog", "Cat", "Horse", "Cow", "Sheep", "Goat", "Pig",
+                "Duck", "Goose", "Mouse", "Rabbit", "Donkey", "Camel");
+        try (OutputStream out = Files.newOutputStream(dir.resolve("animals" + WordPacks.EXTENSION))) {
+            WordDictionary.write(animals, out);
+        }
+        Files.write(dir.resolve("broken" + WordPacks.EXTENSION), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        Files.write(dir.resolve("notes.txt"), new byte[]{1});
+
+        WordPacks wordPacks = new WordPacks(dir.toString());
+
+        assertEquals(List.of("animals", WordPacks.DEFAULT_PACK), List.copyOf(wordPacks.getNames()));
+        assertEquals(animals, wordPacks.get("animals").getWords());
+    }
+
+    @Test
+    void directory_packsSmallerThanAGame_notLoaded(@TempDir Path dir) throws IOException {
+        try (OutputStream out = Files.newOutputStream(dir.resolve("animals" + WordPacks.EXTENSION))) {
+            WordDictionary.write(Arrays.asList("Dog", "Cat", "Horse"), out);
+        }
+        try (OutputStream out = Files.newOutputStream(dir.resolve("empty" + WordPacks.EXTENSION))) {
+            WordDictionary.write(List.of(), out);
+        }
+        Files.write(dir.resolve("blank" + WordPacks.EXTENSION), new byte[0]);
+
+        WordPacks wordPacks = new WordPacks(dir.toString());
+
+        assertEquals(List.of(WordPacks.DEFAULT_PACK), List.copyOf(wordPacks.getNames()));
+        assertThrows(NotFoundException.class, () -> wordPacks.get("animals"));
+    }
+
+    @Test
+    void get_unknownPack_throws() {
+        WordPacks wordPacks = new WordPacks("no-wordpacks");
+
+        assertThrows(NotFoundException.class, () -> wordPacks.get("animals"));
+    }
+}
@@ -0,0 +1,70 @@
+package ch.uzh.ifi.seal.soprafs20.service;
+
+import ch.uzh.ifi.seal.soprafs20.GameLogic.WordDictionary;
+import ch.uzh.ifi.seal.soprafs20.entity.Lobby;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WordSamplerTest {
+
+    private final WordSampler wordSampler = new WordSampler(new WordPacks("no-wordpacks"));
+
+    @Test
+    void draw_noRepeatsUntilPackExhausted() {
+        Lobby lobby = new Lobby();
+        int size = WordDictionary.getInstance().size();
+        Set<String> seen = new HashSet<>();
+
+        for (int game = 0; game < size / 13; game++) {
+            List<String> words = wordSampler.draw(lobby, 13);
+            assertEquals(13, words.size());
+            for (String word : words) {
+                assertTrue(seen.add(word), word);
+            }
+        }
+        assertEquals(size / 13 * 13, lobby.getWordCursor());
+    }
+
+    @Test
+    void draw_packExhausted_restartsWithDistinctWords() {
+        Lobby lobby = new Lobby();
+        wordSampler.restart(lobby);
+        long seed = lobby.getWordSeed();
+        lobby.setWordCursor(WordDictionary.getInstance().size() - 5);
+
+        List<String> words = wordSampler.draw(lobby, 13);
+
+        assertEquals(13, new HashSet<>(words).size());
+        assertNotEquals(seed, lobby.getWordSeed());
+        assertTrue(lobby.getWordCursor() >= 8);
+    }
+
+    @Test
+    void draw_smallPack_allWords(@TempDir Path dir) throws IOException {
+        // the smallest pack that is loaded
+        List<String> animals = Arrays.asList("Dog", "Cat", "Horse", "Cow", "Sheep", "Goat", "Pig",
+                "Duck", "Goose", "Mouse", "Rabbit", "Donkey", "Camel");
+        try (OutputStream out = Files.newOutputStream(dir.resolve("animals" + WordPacks.EXTENSION))) {
+            WordDictionary.write(animals, out);
+        }
+        WordSampler sampler = new WordSampler(new WordPacks(dir.toString()));
+        Lobby lobby = new Lobby();
+        lobby.setWordPack("animals");
+
+        List<String> words = sampler.draw(lobby, 20);
+
+        assertEquals(new HashSet<>(animals), new HashSet<>(words));
+        assertEquals(13, words.size());
+    }
+}